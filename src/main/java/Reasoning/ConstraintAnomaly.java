@@ -0,0 +1,41 @@
+package Reasoning;
+
+import de.vill.model.constraint.Constraint;
+
+/**
+ * Classification of a single cross-tree constraint of a feature model
+ */
+public class ConstraintAnomaly {
+
+    public enum Type {
+        TAUTOLOGY, // holds without any feature model context
+        IMPLIED_BY_TREE, // follows from the feature tree alone
+        REDUNDANT, // follows from the feature tree and the remaining constraints
+        NECESSARY // removing the constraint changes the configuration space
+    }
+
+    private final Constraint constraint;
+
+    private final Type type;
+
+    public ConstraintAnomaly(Constraint constraint, Type type) {
+        this.constraint = constraint;
+        this.type = type;
+    }
+
+    public Constraint getConstraint() {return constraint;}
+
+    public Type getType() {return type;}
+
+    /**
+     * @return true if the constraint can be removed without changing the configuration space
+     */
+    public boolean isRemovable() {
+        return type != Type.NECESSARY;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + constraint;
+    }
+}
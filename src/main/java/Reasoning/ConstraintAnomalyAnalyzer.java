@@ -0,0 +1,173 @@
+package Reasoning;
+
+import conversion.FmToSMTConverter;
+import de.vill.model.FeatureModel;
+import de.vill.model.constraint.Constraint;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detects tautological, tree-implied, and redundant cross-tree constraints of a feature model
+ * Each constraint c_i is guarded by a selector s_i (s_i => c_i) and a negation literal n_i (n_i => !c_i) so that all checks run
+ * incrementally on one prover using assumptions instead of rebuilding the formula per constraint
+ * Constraints are distributed over a pool of workers, each owning its own solver context as Z3 contexts are not thread-safe
+ * Note that each constraint is classified w.r.t. all other constraints, i.e., two equivalent constraints are both reported
+ * as redundant even though only one of them may be removed
+ */
+public class ConstraintAnomalyAnalyzer {
+
+    private static final String SELECTOR_PREFIX = "__constraint_selected_";
+    private static final String NEGATION_PREFIX = "__constraint_negated_";
+    private static final String TREE_SELECTOR = "__tree_selected";
+
+    private final FeatureModel featureModel;
+
+    private final int numberOfWorkers;
+
+    public ConstraintAnomalyAnalyzer(FeatureModel featureModel) {
+        this(featureModel, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConstraintAnomalyAnalyzer(FeatureModel featureModel, int numberOfWorkers) {
+        this.featureModel = featureModel;
+        this.numberOfWorkers = Math.max(1, numberOfWorkers);
+    }
+
+    /**
+     * Classifies every constraint in featureModel.getOwnConstraints()
+     * If the feature tree itself is void, every constraint is reported as implied by the tree
+     * @throws IllegalArgumentException if a constraint cannot be converted
+     * @return one anomaly per constraint in the order of getOwnConstraints()
+     */
+    public List<ConstraintAnomaly> analyze() {
+        final List<Constraint> constraints = featureModel.getOwnConstraints();
+        final ConstraintAnomaly.Type[] types = new ConstraintAnomaly.Type[constraints.size()];
+        if (constraints.isEmpty()) return new ArrayList<>();
+        int workers = Math.min(numberOfWorkers, constraints.size());
+        final AtomicInteger nextIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws InvalidConfigurationException {
+                        try (Worker worker = new Worker(featureModel, constraints)) {
+                            int index;
+                            while ((index = nextIndex.getAndIncrement()) < constraints.size()) {
+                                types[index] = worker.classify(index);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        List<ConstraintAnomaly> anomalies = new ArrayList<>();
+        for (int i = 0; i < constraints.size(); i++) {
+            anomalies.add(new ConstraintAnomaly(constraints.get(i), types[i]));
+        }
+        return anomalies;
+    }
+
+    /**
+     * @return constraints that are individually removable (see class comment for the limitations)
+     */
+    public List<Constraint> findRemovableConstraints() {
+        List<Constraint> removable = new ArrayList<>();
+        for (ConstraintAnomaly anomaly : analyze()) {
+            if (anomaly.isRemovable()) removable.add(anomaly.getConstraint());
+        }
+        return removable;
+    }
+
+    /**
+     * Converts the feature model once into a guarded formula and answers all checks for single constraints via assumptions
+     */
+    private static class Worker implements AutoCloseable {
+
+        private final SolverContext context;
+
+        private final BooleanFormulaManager boolManager;
+
+        private final SMTSatisfiabilityChecker checker;
+
+        private final List<BooleanFormula> selectors;
+
+        private final List<BooleanFormula> negations;
+
+        private final BooleanFormula treeSelector;
+
+        Worker(FeatureModel featureModel, List<Constraint> constraints) throws InvalidConfigurationException {
+            FmToSMTConverter converter = new FmToSMTConverter(featureModel);
+            this.context = converter.getContext();
+            this.boolManager = context.getFormulaManager().getBooleanFormulaManager();
+            this.selectors = new ArrayList<>();
+            this.negations = new ArrayList<>();
+            this.treeSelector = boolManager.makeVariable(TREE_SELECTOR);
+
+            try {
+                List<BooleanFormula> formulaParts = new ArrayList<>();
+                formulaParts.add(boolManager.implication(treeSelector, converter.convertTree()));
+                for (int i = 0; i < constraints.size(); i++) {
+                    BooleanFormula selector = boolManager.makeVariable(SELECTOR_PREFIX + i);
+                    BooleanFormula negation = boolManager.makeVariable(NEGATION_PREFIX + i);
+                    BooleanFormula constraintFormula = converter.convertConstraintToSMT(constraints.get(i));
+                    if (constraintFormula == null) {
+                        throw new IllegalArgumentException("Unsupported constraint " + constraints.get(i));
+                    }
+                    formulaParts.add(boolManager.implication(selector, constraintFormula));
+                    formulaParts.add(boolManager.implication(negation, boolManager.not(constraintFormula)));
+                    selectors.add(selector);
+                    negations.add(negation);
+                }
+                formulaParts.add(converter.convertAuxiliaryDefinitions()); // only defines helper variables, thus unguarded
+                this.checker = new SMTSatisfiabilityChecker(boolManager.and(formulaParts), context);
+            } catch (RuntimeException e) {
+                context.close(); // the worker is never returned, so close() would not be called
+                throw e;
+            }
+        }
+
+        ConstraintAnomaly.Type classify(int index) {
+            BooleanFormula negation = negations.get(index);
+            List<BooleanFormula> assumptions = new ArrayList<>();
+            assumptions.add(negation);
+            if (!checker.isSatWithAssumptions(assumptions)) return ConstraintAnomaly.Type.TAUTOLOGY;
+            assumptions.add(treeSelector);
+            if (!checker.isSatWithAssumptions(assumptions)) return ConstraintAnomaly.Type.IMPLIED_BY_TREE;
+            for (int i = 0; i < selectors.size(); i++) {
+                if (i != index) assumptions.add(selectors.get(i));
+            }
+            if (!checker.isSatWithAssumptions(assumptions)) return ConstraintAnomaly.Type.REDUNDANT;
+            return ConstraintAnomaly.Type.NECESSARY;
+        }
+
+        @Override
+        public void close() {
+            checker.close();
+            context.close();
+        }
+    }
+}
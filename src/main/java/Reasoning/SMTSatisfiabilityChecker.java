@@ -2,7 +2,9 @@ package Reasoning;
 
 import org.sosy_lab.java_smt.api.*;
 
-public class SMTSatisfiabilityChecker {
+import java.util.Collection;
+
+public class SMTSatisfiabilityChecker implements AutoCloseable {
 
     ProverEnvironment prover;
     BooleanFormula baseFormula;
@@ -51,6 +53,19 @@ public class SMTSatisfiabilityChecker {
         }
     }
 
+    /**
+     * Checks the satisfiability of baseFormula under the given assumption literals without modifying the solver stack
+     * @param assumptions literals assumed to be true for this check only
+     * @return true if sat
+     */
+    public boolean isSatWithAssumptions(Collection<BooleanFormula> assumptions) {
+        try {
+            return !prover.isUnsatWithAssumptions(assumptions);
+        } catch (SolverException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Checks satisfiability of baseformula
      * @return true if sat
@@ -63,6 +78,11 @@ public class SMTSatisfiabilityChecker {
         }
     }
 
+    @Override
+    public void close() {
+        prover.close();
+    }
+
     public static boolean isSatStatic(BooleanFormula booleanFormula, SolverContext context) {
         try (ProverEnvironment prover = context.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
             prover.addConstraint(booleanFormula);
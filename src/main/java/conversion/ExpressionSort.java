@@ -0,0 +1,23 @@
+package conversion;
+
+/**
+ * SMT sort of a UVL expression
+ * Integer-only (sub-)expressions are converted to linear integer arithmetic, expressions involving reals to linear real arithmetic
+ */
+public enum ExpressionSort {
+    INT,
+    REAL,
+    STRING;
+
+    /**
+     * @return sort of an arithmetic expression combining values of sort this and other
+     * @throws IllegalArgumentException if one of the values is a string
+     */
+    public ExpressionSort combine(ExpressionSort other) {
+        if (this == STRING || other == STRING) {
+            throw new IllegalArgumentException("Arithmetic on strings is not supported");
+        }
+        if (this == REAL || other == REAL) return REAL;
+        return INT;
+    }
+}
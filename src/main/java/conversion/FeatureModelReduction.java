@@ -0,0 +1,255 @@
+package conversion;
+
+import de.vill.model.Attribute;
+import de.vill.model.Feature;
+import de.vill.model.FeatureModel;
+import de.vill.model.Group;
+import de.vill.model.constraint.*;
+import de.vill.model.expression.*;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+
+import java.util.*;
+
+/**
+ * Detects features that can be merged or ordered before solving
+ * Atomic sets: features that always occur together (mandatory chains) are collapsed to one representative variable
+ * Interchangeable features: leaf siblings without constraint references and with identical attributes are ordered by symmetry-breaking constraints (x_i+1 => x_i)
+ * Symmetry breaking preserves satisfiability and the liveness of each interchangeable class, but not the number of configurations
+ * Thus, it should only be enabled for satisfiability and dead-feature analyses, not for counting or enumeration
+ */
+public class FeatureModelReduction {
+
+    private final FeatureModel featureModel;
+
+    private final boolean breakSymmetries;
+
+    private final Map<String, String> representatives; // feature -> representative of its atomic set
+
+    private final Map<String, List<String>> atomicSets; // representative -> all features of the atomic set
+
+    private final Map<Group, List<List<String>>> interchangeableClasses;
+
+    private final Map<String, List<String>> interchangeableClassOf;
+
+    public FeatureModelReduction(FeatureModel featureModel) {
+        this(featureModel, false);
+    }
+
+    public FeatureModelReduction(FeatureModel featureModel, boolean breakSymmetries) {
+        this.featureModel = featureModel;
+        this.breakSymmetries = breakSymmetries;
+        this.representatives = new HashMap<>();
+        this.atomicSets = new LinkedHashMap<>();
+        this.interchangeableClasses = new IdentityHashMap<>();
+        this.interchangeableClassOf = new HashMap<>();
+        if (featureModel.getRootFeature() != null) {
+            computeAtomicSets(featureModel.getRootFeature(), featureModel.getRootFeature().getIdentifier());
+            Set<String> referencedFeatures = collectReferencedFeatures();
+            if (referencedFeatures != null) computeInterchangeableClasses(referencedFeatures);
+        }
+    }
+
+    /**
+     * @param featureName identifier of a feature
+     * @return identifier of the variable representing the feature, featureName itself if it is not part of a larger atomic set
+     */
+    public String getRepresentative(String featureName) {
+        String representative = representatives.get(featureName);
+        return representative == null ? featureName : representative;
+    }
+
+    /**
+     * @return all features that always occur together with featureName (including itself)
+     */
+    public List<String> getAtomicSet(String featureName) {
+        List<String> atomicSet = atomicSets.get(getRepresentative(featureName));
+        return atomicSet == null ? Collections.singletonList(featureName) : Collections.unmodifiableList(atomicSet);
+    }
+
+    /**
+     * @return classes of interchangeable sibling features (each with at least two features)
+     */
+    public List<List<String>> getInterchangeableClasses() {
+        List<List<String>> classes = new ArrayList<>();
+        for (List<List<String>> groupClasses : interchangeableClasses.values()) {
+            classes.addAll(groupClasses);
+        }
+        return classes;
+    }
+
+    /**
+     * @return representatives whose dead/core status determines the status of all features (see mapDeadFeatures)
+     */
+    public List<String> getFeaturesToAnalyze() {
+        List<String> features = new ArrayList<>();
+        for (String representative : atomicSets.keySet()) {
+            List<String> interchangeableClass = interchangeableClassOf.get(representative);
+            if (interchangeableClass == null || interchangeableClass.get(0).equals(representative)) {
+                features.add(representative);
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Maps dead representatives back to the original features
+     * A feature is dead if the representative of its atomic set is dead or, with symmetry breaking, if the first feature of its interchangeable class is dead
+     * @param deadRepresentatives dead features among getFeaturesToAnalyze()
+     * @return all dead features of the original feature model
+     */
+    public Set<String> mapDeadFeatures(Collection<String> deadRepresentatives) {
+        Set<String> deadFeatures = new LinkedHashSet<>();
+        for (String representative : atomicSets.keySet()) {
+            List<String> interchangeableClass = interchangeableClassOf.get(representative);
+            String decisive = interchangeableClass == null ? representative : interchangeableClass.get(0);
+            if (deadRepresentatives.contains(decisive)) {
+                deadFeatures.addAll(atomicSets.get(representative));
+            }
+        }
+        return deadFeatures;
+    }
+
+    /**
+     * Orders the interchangeable features of group, such that x_i+1 can only be selected if x_i is selected
+     * Already emitted by FmToSMTConverter.convertGroup when the converter uses this reduction
+     * @return symmetry-breaking constraints for group or true if symmetry breaking is disabled
+     */
+    public BooleanFormula convertSymmetryBreaking(Group group, BooleanFormulaManager boolManager) {
+        List<List<String>> groupClasses = interchangeableClasses.get(group);
+        if (!breakSymmetries || groupClasses == null) return boolManager.makeTrue();
+        List<BooleanFormula> formulaParts = new ArrayList<>();
+        for (List<String> interchangeableClass : groupClasses) {
+            for (int i = 1; i < interchangeableClass.size(); i++) {
+                formulaParts.add(boolManager.implication(boolManager.makeVariable(interchangeableClass.get(i)), boolManager.makeVariable(interchangeableClass.get(i - 1))));
+            }
+        }
+        return boolManager.and(formulaParts);
+    }
+
+    private void computeAtomicSets(Feature feature, String representative) {
+        representatives.put(feature.getIdentifier(), representative);
+        atomicSets.computeIfAbsent(representative, k -> new ArrayList<>()).add(feature.getIdentifier());
+        for (Group group : feature.getChildren()) {
+            boolean collapsing = isAlwaysFullySelected(group);
+            for (Feature child : group.getFeatures()) {
+                computeAtomicSets(child, collapsing ? representative : child.getIdentifier());
+            }
+        }
+    }
+
+    private static boolean isAlwaysFullySelected(Group group) {
+        if (group.GROUPTYPE == Group.GroupType.MANDATORY) return true;
+        if (group.GROUPTYPE == Group.GroupType.GROUP_CARDINALITY) return group.getCardinality().lower >= group.getFeatures().size();
+        return group.GROUPTYPE == Group.GroupType.ALTERNATIVE && group.getFeatures().size() == 1
+                || group.GROUPTYPE == Group.GroupType.OR && group.getFeatures().size() == 1;
+    }
+
+    private void computeInterchangeableClasses(Set<String> referencedFeatures) {
+        for (Feature feature : featureModel.getFeatureMap().values()) {
+            for (Group group : feature.getChildren()) {
+                if (isAlwaysFullySelected(group)) continue;
+                List<List<String>> groupClasses = new ArrayList<>();
+                List<Feature> classRepresentatives = new ArrayList<>();
+                for (Feature child : group.getFeatures()) {
+                    if (!child.getChildren().isEmpty() || referencedFeatures.contains(child.getIdentifier())) continue;
+                    int index = 0;
+                    while (index < classRepresentatives.size() && !isInterchangeable(classRepresentatives.get(index), child)) index++;
+                    if (index == classRepresentatives.size()) {
+                        classRepresentatives.add(child);
+                        groupClasses.add(new ArrayList<>());
+                    }
+                    groupClasses.get(index).add(child.getIdentifier());
+                }
+                groupClasses.removeIf(interchangeableClass -> interchangeableClass.size() < 2);
+                if (groupClasses.isEmpty()) continue;
+                interchangeableClasses.put(group, groupClasses);
+                for (List<String> interchangeableClass : groupClasses) {
+                    for (String member : interchangeableClass) {
+                        interchangeableClassOf.put(member, interchangeableClass);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isInterchangeable(Feature first, Feature second) {
+        if (first.getFeatureType() != second.getFeatureType()) return false;
+        Map<String, Attribute<?>> firstAttributes = first.getAttributes();
+        Map<String, Attribute<?>> secondAttributes = second.getAttributes();
+        if (!firstAttributes.keySet().equals(secondAttributes.keySet())) return false;
+        for (Map.Entry<String, Attribute<?>> entry : firstAttributes.entrySet()) {
+            if (!Objects.equals(entry.getValue().getValue(), secondAttributes.get(entry.getKey()).getValue())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return identifiers of all features referenced by cross-tree constraints or null if a constraint could not be inspected
+     */
+    private Set<String> collectReferencedFeatures() {
+        Set<String> referencedFeatures = new HashSet<>();
+        for (Constraint constraint : featureModel.getOwnConstraints()) {
+            if (!collectReferencedFeatures(constraint, referencedFeatures)) return null;
+        }
+        return referencedFeatures;
+    }
+
+    private static boolean collectReferencedFeatures(Constraint constraint, Set<String> referencedFeatures) {
+        if (constraint instanceof LiteralConstraint) {
+            referencedFeatures.add(((LiteralConstraint) constraint).getReference().getIdentifier());
+            return true;
+        } else if (constraint instanceof ExpressionConstraint) {
+            ExpressionConstraint expressionConstraint = (ExpressionConstraint) constraint;
+            return collectReferencedFeatures(expressionConstraint.getLeft(), referencedFeatures) && collectReferencedFeatures(expressionConstraint.getRight(), referencedFeatures);
+        } else if (constraint instanceof AndConstraint) {
+            AndConstraint andConstraint = (AndConstraint) constraint;
+            return collectReferencedFeatures(andConstraint.getLeft(), referencedFeatures) && collectReferencedFeatures(andConstraint.getRight(), referencedFeatures);
+        } else if (constraint instanceof OrConstraint) {
+            OrConstraint orConstraint = (OrConstraint) constraint;
+            return collectReferencedFeatures(orConstraint.getLeft(), referencedFeatures) && collectReferencedFeatures(orConstraint.getRight(), referencedFeatures);
+        } else if (constraint instanceof EquivalenceConstraint) {
+            EquivalenceConstraint equivalenceConstraint = (EquivalenceConstraint) constraint;
+            return collectReferencedFeatures(equivalenceConstraint.getLeft(), referencedFeatures) && collectReferencedFeatures(equivalenceConstraint.getRight(), referencedFeatures);
+        } else if (constraint instanceof ImplicationConstraint) {
+            ImplicationConstraint implicationConstraint = (ImplicationConstraint) constraint;
+            return collectReferencedFeatures(implicationConstraint.getLeft(), referencedFeatures) && collectReferencedFeatures(implicationConstraint.getRight(), referencedFeatures);
+        } else if (constraint instanceof NotConstraint) {
+            return collectReferencedFeatures(((NotConstraint) constraint).getContent(), referencedFeatures);
+        } else if (constraint instanceof ParenthesisConstraint) {
+            return collectReferencedFeatures(((ParenthesisConstraint) constraint).getContent(), referencedFeatures);
+        }
+        return false;
+    }
+
+    private static boolean collectReferencedFeatures(Expression expression, Set<String> referencedFeatures) {
+        if (expression instanceof AddExpression) {
+            AddExpression addExpression = (AddExpression) expression;
+            return collectReferencedFeatures(addExpression.getLeft(), referencedFeatures) && collectReferencedFeatures(addExpression.getRight(), referencedFeatures);
+        } else if (expression instanceof SubExpression) {
+            SubExpression subExpression = (SubExpression) expression;
+            return collectReferencedFeatures(subExpression.getLeft(), referencedFeatures) && collectReferencedFeatures(subExpression.getRight(), referencedFeatures);
+        } else if (expression instanceof MulExpression) {
+            MulExpression mulExpression = (MulExpression) expression;
+            return collectReferencedFeatures(mulExpression.getLeft(), referencedFeatures) && collectReferencedFeatures(mulExpression.getRight(), referencedFeatures);
+        } else if (expression instanceof DivExpression) {
+            DivExpression divExpression = (DivExpression) expression;
+            return collectReferencedFeatures(divExpression.getLeft(), referencedFeatures) && collectReferencedFeatures(divExpression.getRight(), referencedFeatures);
+        } else if (expression instanceof LiteralExpression) {
+            LiteralExpression literalExpression = (LiteralExpression) expression;
+            if (literalExpression.getContent() instanceof Attribute<?>) {
+                referencedFeatures.add(((Attribute<?>) literalExpression.getContent()).getFeature().getIdentifier());
+            } else {
+                referencedFeatures.add(literalExpression.getContent().getIdentifier());
+            }
+            return true;
+        } else if (expression instanceof LengthAggregateFunctionExpression) {
+            referencedFeatures.add(((LengthAggregateFunctionExpression) expression).getReference().getIdentifier());
+            return true;
+        } else if (expression instanceof NumberExpression || expression instanceof StringExpression
+                || expression instanceof SumAggregateFunctionExpression || expression instanceof AvgAggregateFunctionExpression) {
+            return true; // aggregates are converted over all features and, thus, symmetric for features with identical attributes
+        }
+        return false;
+    }
+}
@@ -11,6 +11,7 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.java_smt.SolverContextFactory;
 import org.sosy_lab.java_smt.api.*;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -33,8 +34,14 @@ public class FmToSMTConverter {
 
     private final SolverContext context;
 
+    private final FeatureModelReduction reduction;
+
     private Map<String, List<BooleanFormula>> attributeAverageSetters;
 
+    private final Map<String, ExpressionSort> attributeSorts;
+
+    private enum Comparison {EQUAL, GREATER_EQUALS, LOWER_EQUALS, LOWER, GREATER}
+
     public SolverContext getContext() {return context;}
 
     public FmToSMTConverter(FeatureModel featureModel) throws InvalidConfigurationException {
@@ -42,6 +49,14 @@ public class FmToSMTConverter {
     }
 
     public FmToSMTConverter(SolverContext context, FeatureModel featureModel) throws InvalidConfigurationException {
+        this(context, featureModel, null);
+    }
+
+    /**
+     * @param reduction collapses atomic sets to one variable and optionally adds symmetry-breaking constraints, may be null
+     */
+    public FmToSMTConverter(SolverContext context, FeatureModel featureModel, FeatureModelReduction reduction) throws InvalidConfigurationException {
+        this.reduction = reduction;
         this.context = context;
         this.formulaManager = context.getFormulaManager();
         this.boolManager = this.formulaManager.getBooleanFormulaManager();
@@ -50,6 +65,7 @@ public class FmToSMTConverter {
         this.stringManager = this.formulaManager.getStringFormulaManager();
         this.featureModel = featureModel;
         this.attributeAverageSetters = new HashMap<>();
+        this.attributeSorts = new HashMap<>();
     }
 
     public BooleanFormula convertFeatureModel() {
@@ -59,22 +75,32 @@ public class FmToSMTConverter {
     public BooleanFormula convertTree() {
         List<BooleanFormula> formulaParts = new ArrayList<>();
         for (Feature feature : featureModel.getFeatureMap().values()) {
-            BooleanFormula featureVariable = boolManager.makeVariable(feature.getIdentifier());
+            BooleanFormula featureVariable = makeFeatureVariable(feature.getIdentifier());
             if (feature.getParentGroup() == null) { // Root
                 formulaParts.add(featureVariable);
-            } else {
-                formulaParts.add(boolManager.implication(featureVariable, boolManager.makeVariable(feature.getParentFeature().getIdentifier())));
+            } else if (!getFeatureVariableName(feature.getIdentifier()).equals(getFeatureVariableName(feature.getParentFeature().getIdentifier()))) { // Otherwise collapsed with parent
+                formulaParts.add(boolManager.implication(featureVariable, makeFeatureVariable(feature.getParentFeature().getIdentifier())));
             }
             for (Group group : feature.getChildren()) {
                 formulaParts.add(convertGroup(group));
             }
             for (Attribute<?> att : feature.getAttributes().values()) {
-                if (att.getType().equals(Constants.NUMBER)) { // TODO: Only needed if attribute appears in constraint
+                // TODO: Only needed if attribute appears in constraint
+                ExpressionSort sort = getAttributeSort(att.getName());
+                if (att.getType().equals(Constants.NUMBER) && sort == ExpressionSort.REAL) {
+                    NumeralFormula.RationalFormula attributeVariable = doubleManager.makeVariable(getAttributeIdentifier(feature, att));
+                    formulaParts.add(boolManager.implication(featureVariable, doubleManager.equal(attributeVariable, doubleManager.makeNumber(new BigDecimal(att.getValue().toString())))));
+                    formulaParts.add(boolManager.implication(boolManager.not(featureVariable), doubleManager.equal(attributeVariable, doubleManager.makeNumber(0))));
+                } else if (att.getType().equals(Constants.NUMBER)) {
                     NumeralFormula.IntegerFormula attributeVariable = intManager.makeVariable(getAttributeIdentifier(feature, att));
-                    BooleanFormula selectedImplication = boolManager.implication(featureVariable, intManager.equal(attributeVariable, intManager.makeNumber((long) att.getValue())));
+                    BooleanFormula selectedImplication = boolManager.implication(featureVariable, intManager.equal(attributeVariable, intManager.makeNumber(((Number) att.getValue()).longValue())));
                     formulaParts.add(selectedImplication);
                     BooleanFormula unselectedImplication = boolManager.implication(boolManager.not(featureVariable), intManager.equal(attributeVariable, intManager.makeNumber(0)));
                     formulaParts.add(unselectedImplication);
+                } else if (att.getType().equals(Constants.STRING)) {
+                    StringFormula attributeVariable = stringManager.makeVariable(getAttributeIdentifier(feature, att));
+                    formulaParts.add(boolManager.implication(featureVariable, stringManager.equal(attributeVariable, stringManager.makeString(att.getValue().toString()))));
+                    formulaParts.add(boolManager.implication(boolManager.not(featureVariable), stringManager.equal(attributeVariable, stringManager.makeString(""))));
                 }
             }
         }
@@ -86,6 +112,17 @@ public class FmToSMTConverter {
         for (Constraint constraint : featureModel.getOwnConstraints()) {
             formulaParts.add(convertConstraintToSMT(constraint));
         }
+        formulaParts.add(convertAuxiliaryDefinitions());
+        return boolManager.and(formulaParts);
+    }
+
+    /**
+     * Definitions of helper variables introduced while converting constraints (e.g., divisors for avg aggregates)
+     * Only complete after all constraints referring to them have been converted
+     * @return conjunction of all helper definitions
+     */
+    public BooleanFormula convertAuxiliaryDefinitions() {
+        List<BooleanFormula> formulaParts = new ArrayList<>();
         for (List<BooleanFormula> set : attributeAverageSetters.values()) {
             formulaParts.addAll(set);
         }
@@ -94,7 +131,8 @@ public class FmToSMTConverter {
 
     public BooleanFormula convertGroup(Group group) {
         BooleanFormula groupConstraint;
-        List<BooleanFormula> variables = group.getFeatures().stream().map(x -> boolManager.makeVariable(x.getIdentifier())).collect(Collectors.toList());
+        List<String> variableNames = group.getFeatures().stream().map(x -> getFeatureVariableName(x.getIdentifier())).collect(Collectors.toList());
+        List<BooleanFormula> variables = variableNames.stream().map(boolManager::makeVariable).collect(Collectors.toList());
         if (group.GROUPTYPE == Group.GroupType.OR) {
             groupConstraint = boolManager.or(variables);
         } else if (group.GROUPTYPE == Group.GroupType.MANDATORY) {
@@ -102,20 +140,24 @@ public class FmToSMTConverter {
         } else if (group.GROUPTYPE == Group.GroupType.ALTERNATIVE) {
             BooleanFormula atLeastOne = boolManager.or(variables);
             List<BooleanFormula> pairClauses = new ArrayList<>();
-            for (int i = 0; i < group.getFeatures().size(); i++) {
+            for (int i = 0; i < variables.size(); i++) {
                 for (int j = i + 1; j < variables.size(); j++) {
-                    pairClauses.add(boolManager.or(boolManager.not(boolManager.makeVariable(group.getFeatures().get(i).getIdentifier())), boolManager.not(boolManager.makeVariable(group.getFeatures().get(j).getIdentifier()))));
+                    pairClauses.add(boolManager.or(boolManager.not(variables.get(i)), boolManager.not(variables.get(j))));
                 }
             }
             pairClauses.add(atLeastOne);
             groupConstraint = boolManager.and(pairClauses);
         } else if (group.GROUPTYPE == Group.GroupType.GROUP_CARDINALITY) {
-            CardinalityConverter converter = new CardinalityConverter(group.getCardinality().upper, group.getCardinality().lower, group.getFeatures(), boolManager);
+            CardinalityConverter converter = new CardinalityConverter(variableNames, group.getCardinality().lower, group.getCardinality().upper, boolManager);
             groupConstraint = converter.convertCardinality();
         } else {
             return boolManager.makeTrue(); // Optional
         }
-        return boolManager.implication(boolManager.makeVariable(group.getParentFeature().getIdentifier()), groupConstraint);
+        BooleanFormula groupFormula = boolManager.implication(makeFeatureVariable(group.getParentFeature().getIdentifier()), groupConstraint);
+        if (reduction != null) {
+            return boolManager.and(groupFormula, reduction.convertSymmetryBreaking(group, boolManager));
+        }
+        return groupFormula;
     }
 
     public BooleanFormula convertConstraintToSMT(Constraint constraint) {
@@ -144,64 +186,194 @@ public class FmToSMTConverter {
             if (left != null && right != null) {
                 return stringManager.equal(left, right);
             }
-            return intManager.equal(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight()));
+            return convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.EQUAL);
         } else if (constraint instanceof GreaterEqualsEquationConstraint) {
             GreaterEqualsEquationConstraint equalEquationConstraint = (GreaterEqualsEquationConstraint) constraint;
-            return intManager.greaterOrEquals(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight()));
+            return convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.GREATER_EQUALS);
         } else if (constraint instanceof LowerEqualsEquationConstraint) {
             LowerEqualsEquationConstraint equalEquationConstraint = (LowerEqualsEquationConstraint) constraint;
-            return intManager.lessOrEquals(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight()));
+            return convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.LOWER_EQUALS);
         } else if (constraint instanceof LowerEquationConstraint) {
             LowerEquationConstraint equalEquationConstraint = (LowerEquationConstraint) constraint;
-            return intManager.lessThan(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight()));
+            return convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.LOWER);
         } else if (constraint instanceof GreaterEquationConstraint) {
             GreaterEquationConstraint equalEquationConstraint = (GreaterEquationConstraint) constraint;
-            return intManager.greaterThan(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight()));
+            return convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.GREATER);
         } else if (constraint instanceof NotEqualsEquationConstraint) {
             NotEqualsEquationConstraint equalEquationConstraint = (NotEqualsEquationConstraint) constraint;
-            return boolManager.not(intManager.equal(convertExpressionToSMT(equalEquationConstraint.getLeft()), convertExpressionToSMT(equalEquationConstraint.getRight())));
+            StringFormula left = getStringExpressionIfEligible(equalEquationConstraint.getLeft());
+            StringFormula right = getStringExpressionIfEligible(equalEquationConstraint.getRight());
+            if (left != null && right != null) {
+                return boolManager.not(stringManager.equal(left, right));
+            }
+            return boolManager.not(convertComparison(equalEquationConstraint.getLeft(), equalEquationConstraint.getRight(), Comparison.EQUAL));
         } else if (constraint instanceof LiteralConstraint) {
-            return boolManager.makeVariable(((LiteralConstraint) constraint).getReference().getIdentifier());
+            return makeFeatureVariable(((LiteralConstraint) constraint).getReference().getIdentifier());
         } else {
             return null;
         }
     }
 
-    public NumeralFormula.IntegerFormula convertExpressionToSMT(Expression expression) {
+    /**
+     * Compares left and right in the common sort of both sides, i.e., integer arithmetic unless a real value is involved
+     */
+    private BooleanFormula convertComparison(Expression left, Expression right, Comparison comparison) {
+        if (inferSort(left).combine(inferSort(right)) == ExpressionSort.REAL) {
+            NumeralFormula leftFormula = convertRealExpression(left);
+            NumeralFormula rightFormula = convertRealExpression(right);
+            switch (comparison) {
+                case EQUAL: return doubleManager.equal(leftFormula, rightFormula);
+                case GREATER_EQUALS: return doubleManager.greaterOrEquals(leftFormula, rightFormula);
+                case LOWER_EQUALS: return doubleManager.lessOrEquals(leftFormula, rightFormula);
+                case LOWER: return doubleManager.lessThan(leftFormula, rightFormula);
+                default: return doubleManager.greaterThan(leftFormula, rightFormula);
+            }
+        }
+        NumeralFormula.IntegerFormula leftFormula = convertIntegerExpression(left);
+        NumeralFormula.IntegerFormula rightFormula = convertIntegerExpression(right);
+        switch (comparison) {
+            case EQUAL: return intManager.equal(leftFormula, rightFormula);
+            case GREATER_EQUALS: return intManager.greaterOrEquals(leftFormula, rightFormula);
+            case LOWER_EQUALS: return intManager.lessOrEquals(leftFormula, rightFormula);
+            case LOWER: return intManager.lessThan(leftFormula, rightFormula);
+            default: return intManager.greaterThan(leftFormula, rightFormula);
+        }
+    }
+
+    /**
+     * Converts an arithmetic expression in its inferred sort (see inferSort)
+     * @return IntegerFormula for integer expressions, RationalFormula otherwise
+     */
+    public NumeralFormula convertExpressionToSMT(Expression expression) {
+        ExpressionSort sort = inferSort(expression);
+        if (sort == ExpressionSort.STRING) throw new IllegalArgumentException("Expression " + expression + " is not numeric");
+        if (sort == ExpressionSort.REAL) return convertRealExpression(expression);
+        return convertIntegerExpression(expression);
+    }
+
+    /**
+     * Infers the sort of an expression bottom-up
+     * Numbers and number attributes are real if they hold a fractional value (for attributes: in any feature), averages are always real, features according to their type
+     */
+    public ExpressionSort inferSort(Expression expression) {
+        if (expression instanceof AddExpression) {
+            AddExpression addExpression = (AddExpression) expression;
+            return inferSort(addExpression.getLeft()).combine(inferSort(addExpression.getRight()));
+        } else if (expression instanceof SubExpression) {
+            SubExpression subExpression = (SubExpression) expression;
+            return inferSort(subExpression.getLeft()).combine(inferSort(subExpression.getRight()));
+        } else if (expression instanceof MulExpression) {
+            MulExpression mulExpression = (MulExpression) expression;
+            return inferSort(mulExpression.getLeft()).combine(inferSort(mulExpression.getRight()));
+        } else if (expression instanceof DivExpression) {
+            DivExpression divExpression = (DivExpression) expression;
+            return inferSort(divExpression.getLeft()).combine(inferSort(divExpression.getRight()));
+        } else if (expression instanceof LiteralExpression) {
+            LiteralExpression literalExpression = (LiteralExpression) expression;
+            if (literalExpression.getContent() instanceof Attribute<?>) {
+                return getAttributeSort(((Attribute<?>) literalExpression.getContent()).getName());
+            }
+            if (literalExpression.getContent() instanceof Feature) {
+                FeatureType featureType = ((Feature) literalExpression.getContent()).getFeatureType();
+                if (featureType == FeatureType.REAL) return ExpressionSort.REAL;
+                if (featureType == FeatureType.STRING) return ExpressionSort.STRING;
+            }
+            return ExpressionSort.INT;
+        } else if (expression instanceof NumberExpression) {
+            return isIntegral(((NumberExpression) expression).getNumber()) ? ExpressionSort.INT : ExpressionSort.REAL;
+        } else if (expression instanceof StringExpression) {
+            return ExpressionSort.STRING;
+        } else if (expression instanceof SumAggregateFunctionExpression) {
+            return getNumericAttributeSort(((SumAggregateFunctionExpression) expression).getAttribute().getIdentifier());
+        } else if (expression instanceof AvgAggregateFunctionExpression) {
+            getNumericAttributeSort(((AvgAggregateFunctionExpression) expression).getAttribute().getIdentifier());
+            return ExpressionSort.REAL; // An average is fractional in general, even for integer attributes
+        }
+        return ExpressionSort.INT; // len
+    }
+
+    private NumeralFormula.IntegerFormula convertIntegerExpression(Expression expression) {
         if (expression instanceof AddExpression) {
             AddExpression addExpression = (AddExpression) expression;
-            return intManager.add(convertExpressionToSMT(addExpression.getLeft()), convertExpressionToSMT(addExpression.getRight()));
+            return intManager.add(convertIntegerExpression(addExpression.getLeft()), convertIntegerExpression(addExpression.getRight()));
         } else if (expression instanceof SubExpression) {
             SubExpression subExpression = (SubExpression) expression;
-            return intManager.subtract(convertExpressionToSMT(subExpression.getLeft()), convertExpressionToSMT(subExpression.getRight()));
+            return intManager.subtract(convertIntegerExpression(subExpression.getLeft()), convertIntegerExpression(subExpression.getRight()));
         } else if (expression instanceof MulExpression) {
             MulExpression mulExpression = (MulExpression) expression;
-            return intManager.multiply(convertExpressionToSMT(mulExpression.getLeft()), convertExpressionToSMT(mulExpression.getRight()));
+            return intManager.multiply(convertIntegerExpression(mulExpression.getLeft()), convertIntegerExpression(mulExpression.getRight()));
         } else if (expression instanceof DivExpression) {
             DivExpression divExpression = (DivExpression) expression;
-            return intManager.divide(convertExpressionToSMT(divExpression.getLeft()), convertExpressionToSMT(divExpression.getRight()));
+            return intManager.divide(convertIntegerExpression(divExpression.getLeft()), convertIntegerExpression(divExpression.getRight()));
         } else if (expression instanceof  LiteralExpression) {
             LiteralExpression literalExpression = (LiteralExpression) expression;
             if (literalExpression.getContent() instanceof Attribute<?>) {
                 Attribute<?> attribute = (Attribute<?>) literalExpression.getContent();
                 return intManager.makeVariable(getAttributeIdentifier(attribute.getFeature(), attribute));
             }
-            return intManager.makeVariable(literalExpression.getContent().getIdentifier()); // Feature
+            return intManager.makeVariable(literalExpression.getContent().getIdentifier() + "-int"); // adapted name to differentiate between boolean feature
         } else if (expression instanceof NumberExpression) {
             NumberExpression numberExpression = (NumberExpression) expression;
-            return intManager.makeNumber(numberExpression.getNumber());
+            return intManager.makeNumber((long) numberExpression.getNumber());
         } else if (expression instanceof SumAggregateFunctionExpression){
-            return convertSumAggregate((SumAggregateFunctionExpression) expression);
+            return intManager.sum(getAttributeVariables(((SumAggregateFunctionExpression) expression).getAttribute().getIdentifier(), ExpressionSort.INT));
+        } else if (expression instanceof LengthAggregateFunctionExpression) {
+            return convertLengthAggregate((LengthAggregateFunctionExpression) expression);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Converts an expression in a real context
+     * Integer subtrees are converted as a whole with integer semantics (e.g., / is integer division) and then lifted by the rational manager
+     */
+    private NumeralFormula convertRealExpression(Expression expression) {
+        if (inferSort(expression) == ExpressionSort.INT) return convertIntegerExpression(expression);
+        if (expression instanceof AddExpression) {
+            AddExpression addExpression = (AddExpression) expression;
+            return doubleManager.add(convertRealExpression(addExpression.getLeft()), convertRealExpression(addExpression.getRight()));
+        } else if (expression instanceof SubExpression) {
+            SubExpression subExpression = (SubExpression) expression;
+            return doubleManager.subtract(convertRealExpression(subExpression.getLeft()), convertRealExpression(subExpression.getRight()));
+        } else if (expression instanceof MulExpression) {
+            MulExpression mulExpression = (MulExpression) expression;
+            return doubleManager.multiply(convertRealExpression(mulExpression.getLeft()), convertRealExpression(mulExpression.getRight()));
+        } else if (expression instanceof DivExpression) {
+            DivExpression divExpression = (DivExpression) expression;
+            return doubleManager.divide(convertRealExpression(divExpression.getLeft()), convertRealExpression(divExpression.getRight()));
+        } else if (expression instanceof LiteralExpression) {
+            LiteralExpression literalExpression = (LiteralExpression) expression;
+            if (literalExpression.getContent() instanceof Attribute<?>) {
+                Attribute<?> attribute = (Attribute<?>) literalExpression.getContent();
+                return doubleManager.makeVariable(getAttributeIdentifier(attribute.getFeature(), attribute));
+            }
+            return doubleManager.makeVariable(literalExpression.getContent().getIdentifier() + "-real"); // adapted name to differentiate between boolean feature
+        } else if (expression instanceof NumberExpression) {
+            NumberExpression numberExpression = (NumberExpression) expression;
+            return doubleManager.makeNumber(BigDecimal.valueOf(numberExpression.getNumber()));
+        } else if (expression instanceof SumAggregateFunctionExpression) {
+            String attributeName = ((SumAggregateFunctionExpression) expression).getAttribute().getIdentifier();
+            return doubleManager.sum(getAttributeVariables(attributeName, getAttributeSort(attributeName)));
         } else if (expression instanceof AvgAggregateFunctionExpression) {
-            return convertAvgAggregate((AvgAggregateFunctionExpression) expression);
+            String attributeName = ((AvgAggregateFunctionExpression) expression).getAttribute().getIdentifier();
+            List<NumeralFormula.IntegerFormula> dividers = getAverageDividers(attributeName);
+            if (dividers.isEmpty()) return doubleManager.makeNumber(0);
+            return doubleManager.divide(doubleManager.sum(getAttributeVariables(attributeName, getAttributeSort(attributeName))), intManager.sum(dividers));
         } else if (expression instanceof LengthAggregateFunctionExpression) {
-            LengthAggregateFunctionExpression lengthAggregateFunctionExpression = (LengthAggregateFunctionExpression) expression;
-            return intManager.makeVariable(lengthAggregateFunctionExpression.getReference().getIdentifier() + "-len");
+            return convertLengthAggregate((LengthAggregateFunctionExpression) expression);
         } else {
             return null;
         }
     }
 
+    private NumeralFormula.IntegerFormula convertLengthAggregate(LengthAggregateFunctionExpression aggregate) {
+        StringFormula string = getStringExpressionIfEligible(new LiteralExpression(aggregate.getReference()));
+        if (string == null) {
+            throw new IllegalArgumentException("len() requires a String feature or attribute but got " + aggregate.getReference().getIdentifier());
+        }
+        return stringManager.length(string);
+    }
 
     private StringFormula getStringExpressionIfEligible(Expression expression) {
         if (expression instanceof StringExpression) return stringManager.makeString(((StringExpression) expression).getString());
@@ -211,45 +383,117 @@ public class FmToSMTConverter {
                 if (((Feature)literalExpression.getContent()).getFeatureType() == FeatureType.STRING) return stringManager.makeVariable(literalExpression.getContent().getIdentifier() + "-str"); // adapted name to differentiate between boolean feature
             }
             if (literalExpression.getContent() instanceof Attribute<?>) {
-                if (((Attribute<?>)literalExpression.getContent()).getType().equals(Constants.STRING)) return stringManager.makeVariable(literalExpression.getContent().getIdentifier());
+                Attribute<?> attribute = (Attribute<?>) literalExpression.getContent();
+                if (attribute.getType().equals(Constants.STRING)) return stringManager.makeVariable(getAttributeIdentifier(attribute.getFeature(), attribute));
             }
         }
         return null;
     }
 
 
-    public NumeralFormula.IntegerFormula convertSumAggregate(SumAggregateFunctionExpression aggregate) {
-        String attributeName = aggregate.getAttribute().getIdentifier();
-        List<NumeralFormula.IntegerFormula> attributes = new ArrayList<>();
+    public NumeralFormula convertSumAggregate(SumAggregateFunctionExpression aggregate) {
+        return convertExpressionToSMT(aggregate);
+    }
+
+    /**
+     * @return sum of attributeName over all features (unselected features contribute 0) in the sort of the attribute
+     */
+    public NumeralFormula convertAttributeSum(String attributeName) {
+        if (getNumericAttributeSort(attributeName) == ExpressionSort.REAL) {
+            return doubleManager.sum(getAttributeVariables(attributeName, ExpressionSort.REAL));
+        }
+        return intManager.sum(getAttributeVariables(attributeName, ExpressionSort.INT));
+    }
+
+    public NumeralFormula convertAvgAggregate(AvgAggregateFunctionExpression aggregate) {
+        return convertExpressionToSMT(aggregate);
+    }
+
+    /**
+     * @param sort INT for integer variables, REAL for rational variables
+     * @return the variables of attributeName for all features having that attribute
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends NumeralFormula> List<T> getAttributeVariables(String attributeName, ExpressionSort sort) {
+        List<T> attributes = new ArrayList<>();
         for (Feature feature : featureModel.getFeatureMap().values()) {
             if (feature.getAttributes().containsKey(attributeName)) {
-                attributes.add(intManager.makeVariable(getAttributeIdentifier(feature, feature.getAttributes().get(attributeName))));
+                String identifier = getAttributeIdentifier(feature, feature.getAttributes().get(attributeName));
+                attributes.add((T) (sort == ExpressionSort.REAL ? doubleManager.makeVariable(identifier) : intManager.makeVariable(identifier)));
             }
         }
-        return intManager.sum(attributes);
+        return attributes;
     }
 
-    public NumeralFormula.IntegerFormula convertAvgAggregate(AvgAggregateFunctionExpression aggregate) {
-        String attributeName = aggregate.getAttribute().getIdentifier();
-        List<NumeralFormula.IntegerFormula> attributes = new ArrayList<>();
+    /**
+     * Creates one 0/1 variable per feature having attributeName that is 1 iff the feature is selected
+     * The defining constraints are collected once per attribute and added in convertAuxiliaryDefinitions
+     */
+    private List<NumeralFormula.IntegerFormula> getAverageDividers(String attributeName) {
         List<NumeralFormula.IntegerFormula> dividers = new ArrayList<>();
         List<BooleanFormula> setters = new ArrayList<>();
         for (Feature feature : featureModel.getFeatureMap().values()) {
             if (feature.getAttributes().containsKey(attributeName)) {
-                attributes.add(intManager.makeVariable(getAttributeIdentifier(feature, feature.getAttributes().get(attributeName))));
                 NumeralFormula.IntegerFormula dividerVariable = intManager.makeVariable(feature.getIdentifier() + "_" + "AVG_INT");
                 dividers.add(dividerVariable);
                 if (!attributeAverageSetters.containsKey(attributeName)) {
-                    setters.add(boolManager.implication(boolManager.makeVariable(feature.getIdentifier()), intManager.equal(dividerVariable, intManager.makeNumber(1))));
-                    setters.add(boolManager.implication(boolManager.not(boolManager.makeVariable(feature.getIdentifier())), intManager.equal(dividerVariable, intManager.makeNumber(0))));
+                    setters.add(boolManager.implication(makeFeatureVariable(feature.getIdentifier()), intManager.equal(dividerVariable, intManager.makeNumber(1))));
+                    setters.add(boolManager.implication(boolManager.not(makeFeatureVariable(feature.getIdentifier())), intManager.equal(dividerVariable, intManager.makeNumber(0))));
                 }
             }
         }
-        if (dividers.isEmpty()) return intManager.makeNumber(0);
-        if (!attributeAverageSetters.containsKey(attributeName)) {
+        if (!dividers.isEmpty() && !attributeAverageSetters.containsKey(attributeName)) {
             attributeAverageSetters.put(attributeName, setters);
         }
-        return intManager.divide(intManager.sum(attributes), intManager.sum(dividers));
+        return dividers;
+    }
+
+    /**
+     * An attribute is real if any feature assigns a non-integral number to it
+     */
+    private ExpressionSort getAttributeSort(String attributeName) {
+        ExpressionSort sort = attributeSorts.get(attributeName);
+        if (sort != null) return sort;
+        sort = ExpressionSort.INT;
+        for (Feature feature : featureModel.getFeatureMap().values()) {
+            Attribute<?> attribute = feature.getAttributes().get(attributeName);
+            if (attribute == null) continue;
+            if (attribute.getType().equals(Constants.STRING)) {
+                sort = ExpressionSort.STRING;
+                break;
+            }
+            if (attribute.getValue() instanceof Number && !isIntegral(((Number) attribute.getValue()).doubleValue())) {
+                sort = ExpressionSort.REAL;
+            }
+        }
+        attributeSorts.put(attributeName, sort);
+        return sort;
+    }
+
+    /**
+     * @throws IllegalArgumentException if attributeName holds strings, as sum and avg are only defined for numbers
+     */
+    private ExpressionSort getNumericAttributeSort(String attributeName) {
+        ExpressionSort sort = getAttributeSort(attributeName);
+        if (sort == ExpressionSort.STRING) {
+            throw new IllegalArgumentException("Attribute " + attributeName + " is not numeric");
+        }
+        return sort;
+    }
+
+    private static boolean isIntegral(double number) {
+        return !Double.isInfinite(number) && number == Math.rint(number);
+    }
+
+    /**
+     * @return name of the Boolean variable representing the feature, i.e., the representative of its atomic set if a reduction is used
+     */
+    public String getFeatureVariableName(String featureIdentifier) {
+        return reduction == null ? featureIdentifier : reduction.getRepresentative(featureIdentifier);
+    }
+
+    private BooleanFormula makeFeatureVariable(String featureIdentifier) {
+        return boolManager.makeVariable(getFeatureVariableName(featureIdentifier));
     }
 
     private static String getAttributeIdentifier(Feature feature, Attribute<?> attribute) {
@@ -0,0 +1,94 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A single analysis request against a registered feature model
+ * Textual syntax (one query per line): sat | sat-with [!]F... | dead | core | propagate [!]F... | optimize min|max ATTRIBUTE [!]F...
+ * Literals are feature names, optionally negated with !
+ */
+public class ReasoningQuery {
+
+    public enum Type {
+        SAT("sat"),
+        SAT_WITH("sat-with"),
+        DEAD("dead"),
+        CORE("core"),
+        PROPAGATE("propagate"),
+        OPTIMIZE("optimize");
+
+        private final String keyword;
+
+        Type(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public String getKeyword() {return keyword;}
+    }
+
+    private final Type type;
+
+    private final List<String> literals;
+
+    private final boolean maximize;
+
+    private final String attribute;
+
+    public ReasoningQuery(Type type, List<String> literals) {
+        this(type, literals, false, null);
+    }
+
+    public ReasoningQuery(Type type, List<String> literals, boolean maximize, String attribute) {
+        this.type = type;
+        this.literals = literals;
+        this.maximize = maximize;
+        this.attribute = attribute;
+    }
+
+    public Type getType() {return type;}
+
+    /**
+     * @return assumed feature literals, negated literals start with !
+     */
+    public List<String> getLiterals() {return literals;}
+
+    public boolean isMaximize() {return maximize;}
+
+    public String getAttribute() {return attribute;}
+
+    public static ReasoningQuery parse(String query) {
+        List<String> tokens = new ArrayList<>(Arrays.asList(query.trim().split("\\s+")));
+        if (tokens.isEmpty() || tokens.get(0).isEmpty()) {
+            throw new IllegalArgumentException("Empty query");
+        }
+        String keyword = tokens.remove(0);
+        for (Type type : Type.values()) {
+            if (!type.getKeyword().equals(keyword)) continue;
+            if (type == Type.OPTIMIZE) {
+                if (tokens.size() < 2 || !(tokens.get(0).equals("min") || tokens.get(0).equals("max"))) {
+                    throw new IllegalArgumentException("Expected: optimize min|max ATTRIBUTE [literals]");
+                }
+                boolean maximize = tokens.remove(0).equals("max");
+                String attribute = tokens.remove(0);
+                return new ReasoningQuery(type, tokens, maximize, attribute);
+            }
+            if ((type == Type.SAT || type == Type.DEAD || type == Type.CORE) && !tokens.isEmpty()) {
+                throw new IllegalArgumentException(keyword + " does not take arguments");
+            }
+            return new ReasoningQuery(type, tokens);
+        }
+        throw new IllegalArgumentException("Unknown query " + keyword);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(type.getKeyword());
+        if (type == Type.OPTIMIZE) builder.append(maximize ? " max " : " min ").append(attribute);
+        for (String literal : literals) {
+            builder.append(' ').append(literal);
+        }
+        return builder.toString();
+    }
+}
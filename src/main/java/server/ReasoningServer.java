@@ -0,0 +1,196 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.vill.main.UVLModelFactory;
+import de.vill.model.FeatureModel;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Local HTTP endpoint sharing converted feature models and their solvers between clients
+ * Endpoints (plain text, UTF-8):
+ *   PUT    /models/{id}  body: UVL model, converts and registers the model once
+ *   DELETE /models/{id}  releases the solver of the model
+ *   POST   /batch        body: one "{id} {query}" per line (see ReasoningQuery)
+ * Batch queries are grouped per model; groups run in parallel, queries of one group sequentially on the same prover
+ * Results are streamed as soon as they are available, one "{line index}\t{result}" per line, failed queries yield "{line index}\terror {message}"
+ * Queries of a batch that reach a model after it was replaced or removed yield "{line index}\terror model removed"
+ */
+public class ReasoningServer implements AutoCloseable {
+
+    private static final String MODELS_PATH = "/models/";
+    private static final String BATCH_PATH = "/batch";
+
+    private final HttpServer httpServer;
+
+    private final ExecutorService executor;
+
+    private final ExecutorService httpExecutor;
+
+    private final Map<String, ReasoningSession> sessions;
+
+    public ReasoningServer(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ReasoningServer(int port, int numberOfThreads) throws IOException {
+        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+        this.httpExecutor = Executors.newCachedThreadPool();
+        this.sessions = new ConcurrentHashMap<>();
+        httpServer.createContext(MODELS_PATH, this::handleModel);
+        httpServer.createContext(BATCH_PATH, this::handleBatch);
+        httpServer.setExecutor(httpExecutor);
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * @return the bound port, useful when started with port 0
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Registers a model directly, replacing and closing a previous model with the same id
+     */
+    public void registerModel(String id, FeatureModel featureModel) throws InvalidConfigurationException {
+        ReasoningSession previous = sessions.put(id, new ReasoningSession(featureModel));
+        if (previous != null) previous.close();
+    }
+
+    public boolean unregisterModel(String id) {
+        ReasoningSession session = sessions.remove(id);
+        if (session == null) return false;
+        session.close();
+        return true;
+    }
+
+    private void handleModel(HttpExchange exchange) throws IOException {
+        try {
+            String id = exchange.getRequestURI().getPath().substring(MODELS_PATH.length());
+            if (id.isEmpty() || id.contains("/")) {
+                sendText(exchange, 404, "Unknown model path");
+            } else if (exchange.getRequestMethod().equals("PUT") || exchange.getRequestMethod().equals("POST")) {
+                FeatureModel featureModel = new UVLModelFactory().parse(readBody(exchange));
+                registerModel(id, featureModel);
+                sendText(exchange, 200, "registered " + id);
+            } else if (exchange.getRequestMethod().equals("DELETE")) {
+                if (unregisterModel(id)) sendText(exchange, 200, "removed " + id);
+                else sendText(exchange, 404, "Unknown model " + id);
+            } else {
+                sendText(exchange, 405, "Unsupported method " + exchange.getRequestMethod());
+            }
+        } catch (Exception e) {
+            sendText(exchange, 400, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendText(exchange, 405, "Unsupported method " + exchange.getRequestMethod());
+            return;
+        }
+        String[] lines = readBody(exchange).split("\\r?\\n");
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        final Writer writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+
+        Map<String, List<Integer>> linesPerModel = new LinkedHashMap<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) continue;
+            String id = line.split("\\s+", 2)[0];
+            linesPerModel.computeIfAbsent(id, k -> new ArrayList<>()).add(i);
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : linesPerModel.entrySet()) {
+            final ReasoningSession session = sessions.get(entry.getKey());
+            final List<Integer> indices = entry.getValue();
+            futures.add(executor.submit(() -> {
+                for (int index : indices) {
+                    writeResult(writer, index, answer(session, entry.getKey(), lines[index].trim()));
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Client disconnected, remaining results are dropped
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String answer(ReasoningSession session, String id, String line) {
+        if (session == null) return "error Unknown model " + id;
+        String[] parts = line.split("\\s+", 2);
+        try {
+            return session.answer(ReasoningQuery.parse(parts.length > 1 ? parts[1] : ""));
+        } catch (RuntimeException e) {
+            return "error " + e.getMessage();
+        }
+    }
+
+    private static void writeResult(Writer writer, int index, String result) {
+        synchronized (writer) {
+            try {
+                writer.write(index + "\t" + result + "\n");
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        InputStream input = exchange.getRequestBody();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+        httpExecutor.shutdownNow();
+        for (String id : new ArrayList<>(sessions.keySet())) {
+            unregisterModel(id);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        ReasoningServer server = new ReasoningServer(port);
+        server.start();
+        System.out.println("UVL-SMT reasoning server listening on localhost:" + server.getPort());
+    }
+}
@@ -0,0 +1,184 @@
+package server;
+
+import Reasoning.SMTSatisfiabilityChecker;
+import conversion.FmToSMTConverter;
+import de.vill.model.Feature;
+import de.vill.model.FeatureModel;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Solver state for one registered feature model
+ * The model is converted once and all queries reuse the same solver context and prover
+ * Queries are serialized per session as Z3 contexts are not thread-safe
+ * Once closed (e.g., replaced or removed while a batch is running), the session answers every query with an error instead of touching the freed context
+ */
+public class ReasoningSession implements AutoCloseable {
+
+    private final FeatureModel featureModel;
+
+    private final FmToSMTConverter converter;
+
+    private final SolverContext context;
+
+    private final BooleanFormulaManager boolManager;
+
+    private final BooleanFormula baseFormula;
+
+    private final SMTSatisfiabilityChecker checker;
+
+    private OptimizationProverEnvironment optimizationProver;
+
+    private boolean closed;
+
+    public ReasoningSession(FeatureModel featureModel) throws InvalidConfigurationException {
+        this.featureModel = featureModel;
+        this.converter = new FmToSMTConverter(featureModel);
+        this.context = converter.getContext();
+        this.boolManager = context.getFormulaManager().getBooleanFormulaManager();
+        try {
+            this.baseFormula = converter.convertFeatureModel();
+            this.checker = new SMTSatisfiabilityChecker(baseFormula, context);
+        } catch (RuntimeException e) {
+            context.close(); // the session is never registered, so close() would not be called
+            throw e;
+        }
+    }
+
+    public FeatureModel getFeatureModel() {return featureModel;}
+
+    /**
+     * @return textual result of the query (see ReasoningServer for the format)
+     */
+    public synchronized String answer(ReasoningQuery query) {
+        if (closed) return "error model removed";
+        List<BooleanFormula> assumptions = convertLiterals(query.getLiterals());
+        switch (query.getType()) {
+            case SAT:
+            case SAT_WITH:
+                return checker.isSatWithAssumptions(assumptions) ? "sat" : "unsat";
+            case DEAD:
+                return String.join(" ", findDeadFeatures());
+            case CORE:
+                return String.join(" ", findCoreFeatures());
+            case PROPAGATE:
+                return propagate(query.getLiterals(), assumptions);
+            default:
+                return optimize(query, assumptions);
+        }
+    }
+
+    public synchronized List<String> findDeadFeatures() {
+        ensureOpen();
+        List<String> deadFeatures = new ArrayList<>();
+        for (String feature : featureModel.getFeatureMap().keySet()) {
+            List<BooleanFormula> assumptions = new ArrayList<>();
+            assumptions.add(makeFeatureVariable(feature));
+            if (!checker.isSatWithAssumptions(assumptions)) deadFeatures.add(feature);
+        }
+        return deadFeatures;
+    }
+
+    public synchronized List<String> findCoreFeatures() {
+        ensureOpen();
+        List<String> coreFeatures = new ArrayList<>();
+        for (String feature : featureModel.getFeatureMap().keySet()) {
+            List<BooleanFormula> assumptions = new ArrayList<>();
+            assumptions.add(boolManager.not(makeFeatureVariable(feature)));
+            if (!checker.isSatWithAssumptions(assumptions)) coreFeatures.add(feature);
+        }
+        return coreFeatures;
+    }
+
+    /**
+     * Decision propagation: features that are implied to be selected or deselected by the given partial configuration
+     */
+    private String propagate(List<String> literals, List<BooleanFormula> assumptions) {
+        if (!checker.isSatWithAssumptions(assumptions)) return "unsat";
+        List<String> selected = new ArrayList<>();
+        List<String> deselected = new ArrayList<>();
+        for (String feature : featureModel.getFeatureMap().keySet()) {
+            if (literals.contains(feature) || literals.contains("!" + feature)) continue;
+            List<BooleanFormula> extended = new ArrayList<>(assumptions);
+            extended.add(makeFeatureVariable(feature));
+            if (!checker.isSatWithAssumptions(extended)) {
+                deselected.add(feature);
+                continue;
+            }
+            extended.set(extended.size() - 1, boolManager.not(makeFeatureVariable(feature)));
+            if (!checker.isSatWithAssumptions(extended)) selected.add(feature);
+        }
+        return "selected: " + String.join(" ", selected) + "; deselected: " + String.join(" ", deselected);
+    }
+
+    private String optimize(ReasoningQuery query, List<BooleanFormula> assumptions) {
+        if (!hasAttribute(query.getAttribute())) {
+            throw new IllegalArgumentException("Unknown attribute " + query.getAttribute());
+        }
+        try {
+            if (optimizationProver == null) {
+                optimizationProver = context.newOptimizationProverEnvironment();
+                optimizationProver.addConstraint(baseFormula);
+            }
+            optimizationProver.push();
+            try {
+                for (BooleanFormula assumption : assumptions) {
+                    optimizationProver.addConstraint(assumption);
+                }
+                Formula objective = converter.convertAttributeSum(query.getAttribute());
+                int handle = query.isMaximize() ? optimizationProver.maximize(objective) : optimizationProver.minimize(objective);
+                OptimizationProverEnvironment.OptStatus status = optimizationProver.check();
+                if (status == OptimizationProverEnvironment.OptStatus.UNSAT) return "unsat";
+                if (status != OptimizationProverEnvironment.OptStatus.OPT) return "unknown";
+                Optional<Rational> optimum = query.isMaximize() ? optimizationProver.upper(handle, Rational.ZERO) : optimizationProver.lower(handle, Rational.ZERO);
+                return optimum.isPresent() ? optimum.get().toString() : "unbounded";
+            } finally {
+                optimizationProver.pop();
+            }
+        } catch (SolverException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<BooleanFormula> convertLiterals(List<String> literals) {
+        List<BooleanFormula> formulas = new ArrayList<>();
+        for (String literal : literals) {
+            boolean negated = literal.startsWith("!");
+            String feature = negated ? literal.substring(1) : literal;
+            if (!featureModel.getFeatureMap().containsKey(feature)) {
+                throw new IllegalArgumentException("Unknown feature " + feature);
+            }
+            formulas.add(negated ? boolManager.not(makeFeatureVariable(feature)) : makeFeatureVariable(feature));
+        }
+        return formulas;
+    }
+
+    private boolean hasAttribute(String attributeName) {
+        for (Feature feature : featureModel.getFeatureMap().values()) {
+            if (feature.getAttributes().containsKey(attributeName)) return true;
+        }
+        return false;
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("model removed");
+    }
+
+    private BooleanFormula makeFeatureVariable(String feature) {
+        return boolManager.makeVariable(converter.getFeatureVariableName(feature));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (optimizationProver != null) optimizationProver.close();
+        checker.close();
+        context.close();
+    }
+}
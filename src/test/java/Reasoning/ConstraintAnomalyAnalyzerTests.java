@@ -0,0 +1,33 @@
+package Reasoning;
+
+import de.vill.main.UVLModelFactory;
+import de.vill.model.FeatureModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+class ConstraintAnomalyAnalyzerTests {
+
+    @Test
+    void testAnomalies() {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel featureModel = factory.parse(Paths.get("src/test/resources/anomalies/constraints.uvl"));
+
+        List<ConstraintAnomaly> sequential = new ConstraintAnomalyAnalyzer(featureModel, 1).analyze();
+        List<ConstraintAnomaly> parallel = new ConstraintAnomalyAnalyzer(featureModel, 4).analyze();
+
+        assert sequential.size() == featureModel.getOwnConstraints().size();
+        for (int i = 0; i < sequential.size(); i++) {
+            assert sequential.get(i).getConstraint() == featureModel.getOwnConstraints().get(i);
+            assert sequential.get(i).getType() == parallel.get(i).getType();
+        }
+
+        assert sequential.get(0).getType() == ConstraintAnomaly.Type.NECESSARY; // A => B
+        assert sequential.get(1).getType() == ConstraintAnomaly.Type.NECESSARY; // B => C
+        assert sequential.get(2).getType() == ConstraintAnomaly.Type.REDUNDANT; // A => C
+        assert sequential.get(3).getType() == ConstraintAnomaly.Type.IMPLIED_BY_TREE; // Root => Base
+        assert sequential.get(4).getType() == ConstraintAnomaly.Type.TAUTOLOGY; // X | !X
+        assert sequential.get(5).getType() == ConstraintAnomaly.Type.TAUTOLOGY; // A => A | B
+    }
+}
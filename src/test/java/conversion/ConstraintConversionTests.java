@@ -6,8 +6,12 @@ import de.vill.main.UVLModelFactory;
 import de.vill.model.Feature;
 import de.vill.model.FeatureModel;
 import de.vill.model.Group;
+import de.vill.model.constraint.AndConstraint;
 import de.vill.model.constraint.Constraint;
 import de.vill.model.constraint.EqualEquationConstraint;
+import de.vill.model.constraint.GreaterEquationConstraint;
+import de.vill.model.constraint.LowerEquationConstraint;
+import de.vill.model.constraint.NotEqualsEquationConstraint;
 import de.vill.model.expression.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -128,6 +132,31 @@ class ConstraintConversionTests {
         assert !SMTSatisfiabilityChecker.isSatStatic(booleanManager.and(cardinality03, unsatAssignment40), context);
     }
 
+    @Test
+    void testCardinalityGroup() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel cardinalityModel = factory.parse(Paths.get("src/test/resources/cardinality/group.uvl"));
+
+        FmToSMTConverter converter = new FmToSMTConverter(context, cardinalityModel);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+        List<String> children = new ArrayList<>();
+        children.add("A");
+        children.add("B");
+        children.add("C");
+
+        // [1..2] & 1 selected, 2 deselected == SAT
+        assert checker.isSatWith(buildSimpleAssignment(children, 1, 2));
+
+        // [1..2] & 2 selected == SAT
+        assert checker.isSatWith(buildSimpleAssignment(children, 2, 1));
+
+        // [1..2] & 3 selected == !SAT
+        assert !checker.isSatWith(buildSimpleAssignment(children, 3, 0));
+
+        // [1..2] & 3 deselected == !SAT
+        assert !checker.isSatWith(buildSimpleAssignment(children, 0, 3));
+    }
+
     @Test
     void testAlternative() throws InvalidConfigurationException {
         BooleanFormula alternative = buildGroup(booleanVariables, Group.GroupType.ALTERNATIVE);
@@ -234,6 +263,164 @@ class ConstraintConversionTests {
         assert checker.isSatWith(converter.convertConstraintToSMT(simpleDivUnknown));
     }
 
+    @Test
+    void testRealArithmetic() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel realBase = factory.parse(Paths.get("src/test/resources/arithmetic/realbase.uvl"));
+
+        FmToSMTConverter converter = new FmToSMTConverter(context, realBase);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+
+        Expression optionalFeature1 = getPrice(realBase, "OptionalOne");
+        Expression optionalFeature2 = getPrice(realBase, "OptionalTwo");
+        Expression alternativeFeature1 = getPrice(realBase, "AlternativeOne");
+        Expression alternativeWeight = new LiteralExpression(realBase.getFeatureMap().get("AlternativeOne").getAttributes().get("Weight"));
+
+        assert converter.inferSort(optionalFeature1) == ExpressionSort.REAL;
+        assert converter.inferSort(alternativeWeight) == ExpressionSort.INT;
+        assert converter.inferSort(new AddExpression(alternativeWeight, new NumberExpression(0.5))) == ExpressionSort.REAL;
+
+        // Fractional values must not be truncated
+        Constraint fractionalAddSat = new EqualEquationConstraint(new AddExpression(optionalFeature1, optionalFeature2), new NumberExpression(1.75));
+        assert checker.isSatWith(converter.convertConstraintToSMT(fractionalAddSat));
+
+        Constraint fractionalAddUnsat = new EqualEquationConstraint(new AddExpression(optionalFeature1, optionalFeature2), new NumberExpression(1));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(fractionalAddUnsat));
+
+        Constraint fractionalGreaterSat = new GreaterEquationConstraint(alternativeFeature1, new NumberExpression(2.5));
+        assert checker.isSatWith(converter.convertConstraintToSMT(fractionalGreaterSat));
+
+        // Real division instead of integer division
+        Constraint fractionalDivSat = new EqualEquationConstraint(new DivExpression(optionalFeature1, new NumberExpression(2)), new NumberExpression(0.75));
+        assert checker.isSatWith(converter.convertConstraintToSMT(fractionalDivSat));
+
+        // Integer attributes in real context
+        Constraint mixedSat = new EqualEquationConstraint(new AddExpression(alternativeWeight, alternativeFeature1), new NumberExpression(5.75));
+        assert checker.isSatWith(converter.convertConstraintToSMT(mixedSat));
+
+        Constraint mixedUnsat = new EqualEquationConstraint(new AddExpression(alternativeWeight, alternativeFeature1), new NumberExpression(5.5));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(mixedUnsat));
+    }
+
+    @Test
+    void testIntegerSubtreesInRealContext() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel realBase = factory.parse(Paths.get("src/test/resources/arithmetic/realbase.uvl"));
+
+        FmToSMTConverter converter = new FmToSMTConverter(context, realBase);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+        Expression alternativeWeight = new LiteralExpression(realBase.getFeatureMap().get("AlternativeOne").getAttributes().get("Weight"));
+
+        // Weight / 2 is an integer subtree and keeps integer division (3 / 2 = 1), regardless of the real comparison
+        Constraint integerDivUnsat = new EqualEquationConstraint(new DivExpression(alternativeWeight, new NumberExpression(2)), new NumberExpression(1.5));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(integerDivUnsat));
+
+        Constraint integerDivSat = new EqualEquationConstraint(new AddExpression(new DivExpression(alternativeWeight, new NumberExpression(2)), new NumberExpression(0.5)), new NumberExpression(1.5));
+        assert checker.isSatWith(converter.convertConstraintToSMT(integerDivSat));
+    }
+
+    @Test
+    void testAverageIsReal() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel averageBase = factory.parse(Paths.get("src/test/resources/arithmetic/averagebase.uvl"));
+
+        // avg(Size) of 3 and 4 is 3.5, integer division would yield 3
+        FmToSMTConverter converter = new FmToSMTConverter(context, averageBase);
+        assert SMTSatisfiabilityChecker.isSatStatic(converter.convertFeatureModel(), context);
+    }
+
+    @Test
+    void testTypedFeaturesAndStrings() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel realBase = factory.parse(Paths.get("src/test/resources/arithmetic/realbase.uvl"));
+
+        FmToSMTConverter converter = new FmToSMTConverter(context, realBase);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+        BooleanFormula optionalOneSelected = booleanManager.makeVariable("OptionalOne");
+
+        // String attributes are defined by convertTree
+        Expression vendor = new LiteralExpression(realBase.getFeatureMap().get("OptionalOne").getAttributes().get("Vendor"));
+        Constraint vendorEqualSat = new EqualEquationConstraint(vendor, new StringExpression("acme"));
+        assert checker.isSatWith(booleanManager.and(optionalOneSelected, converter.convertConstraintToSMT(vendorEqualSat)));
+
+        Constraint vendorEqualUnsat = new EqualEquationConstraint(vendor, new StringExpression("other"));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(vendorEqualUnsat));
+
+        Constraint vendorNotEqualUnsat = new NotEqualsEquationConstraint(vendor, new StringExpression("acme"));
+        assert !checker.isSatWith(booleanManager.and(optionalOneSelected, converter.convertConstraintToSMT(vendorNotEqualUnsat)));
+
+        Constraint vendorNotEqualSat = new NotEqualsEquationConstraint(vendor, new StringExpression("other"));
+        assert checker.isSatWith(booleanManager.and(optionalOneSelected, converter.convertConstraintToSMT(vendorNotEqualSat)));
+
+        // len() is the length of the String feature
+        Feature nameFeature = realBase.getFeatureMap().get("Name");
+        Expression nameLength = new LengthAggregateFunctionExpression(nameFeature);
+        Constraint lengthSat = new EqualEquationConstraint(nameLength, new NumberExpression(3));
+        assert checker.isSatWith(converter.convertConstraintToSMT(lengthSat));
+
+        Constraint negativeLengthUnsat = new LowerEquationConstraint(nameLength, new NumberExpression(0));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(negativeLengthUnsat));
+
+        Constraint nameValue = new EqualEquationConstraint(new LiteralExpression(nameFeature), new StringExpression("abcd"));
+        assert !checker.isSatWith(booleanManager.and(converter.convertConstraintToSMT(nameValue), converter.convertConstraintToSMT(lengthSat)));
+
+        // len() of a non-String feature is rejected
+        boolean rejected = false;
+        try {
+            converter.convertConstraintToSMT(new EqualEquationConstraint(new LengthAggregateFunctionExpression(realBase.getFeatureMap().get("Ratio")), new NumberExpression(1)));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assert rejected;
+
+        // Real features are rational variables that do not clash with their selection variable
+        Expression ratio = new LiteralExpression(realBase.getFeatureMap().get("Ratio"));
+        assert converter.inferSort(ratio) == ExpressionSort.REAL;
+        Constraint ratioBetweenSat = new AndConstraint(
+                new GreaterEquationConstraint(ratio, new NumberExpression(0.5)),
+                new LowerEquationConstraint(ratio, new NumberExpression(0.75)));
+        assert checker.isSatWith(booleanManager.and(booleanManager.makeVariable("Ratio"), converter.convertConstraintToSMT(ratioBetweenSat)));
+
+        Constraint ratioHalfSat = new EqualEquationConstraint(new MulExpression(ratio, new NumberExpression(2)), new NumberExpression(1));
+        assert checker.isSatWith(converter.convertConstraintToSMT(ratioHalfSat));
+    }
+
+    @Test
+    void testIntegerFeaturesAndStringArithmetic() throws InvalidConfigurationException {
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel realBase = factory.parse(Paths.get("src/test/resources/arithmetic/realbase.uvl"));
+
+        FmToSMTConverter converter = new FmToSMTConverter(context, realBase);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+
+        // Integer features are integer variables that do not clash with their selection variable
+        Expression count = new LiteralExpression(realBase.getFeatureMap().get("Count"));
+        assert converter.inferSort(count) == ExpressionSort.INT;
+        Constraint countSat = new EqualEquationConstraint(new AddExpression(count, new NumberExpression(1)), new NumberExpression(3));
+        assert checker.isSatWith(booleanManager.and(booleanManager.makeVariable("Count"), converter.convertConstraintToSMT(countSat)));
+
+        Constraint countHalfUnsat = new EqualEquationConstraint(new MulExpression(count, new NumberExpression(2)), new NumberExpression(3));
+        assert !checker.isSatWith(converter.convertConstraintToSMT(countHalfUnsat));
+
+        // Arithmetic on strings is rejected instead of being treated as integer arithmetic
+        Expression name = new LiteralExpression(realBase.getFeatureMap().get("Name"));
+        boolean rejected = false;
+        try {
+            converter.convertConstraintToSMT(new EqualEquationConstraint(new AddExpression(name, new NumberExpression(1)), new NumberExpression(2)));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assert rejected;
+
+        rejected = false;
+        try {
+            converter.convertAttributeSum("Vendor");
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assert rejected;
+    }
+
     private static Expression getPrice(FeatureModel model, String featureName) {
         return new LiteralExpression(model.getFeatureMap().get(featureName).getAttributes().get("Price"));
     }
@@ -0,0 +1,79 @@
+package conversion;
+
+import Reasoning.SMTSatisfiabilityChecker;
+import de.vill.main.UVLModelFactory;
+import de.vill.model.FeatureModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.SolverContext;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class FeatureModelReductionTests {
+
+    SolverContext context;
+
+    BooleanFormulaManager booleanManager;
+
+    FeatureModel symmetricModel;
+
+    @BeforeEach
+    void setup() throws InvalidConfigurationException {
+        this.context = SolverContextFactory.createSolverContext(Configuration.defaultConfiguration(), LogManager.createNullLogManager(), ShutdownManager.create().getNotifier(), SolverContextFactory.Solvers.Z3);
+        this.booleanManager = context.getFormulaManager().getBooleanFormulaManager();
+        UVLModelFactory factory = new UVLModelFactory();
+        symmetricModel = factory.parse(Paths.get("src/test/resources/reduction/symmetric.uvl"));
+    }
+
+    @Test
+    void testAtomicSets() {
+        FeatureModelReduction reduction = new FeatureModelReduction(symmetricModel);
+        assert reduction.getRepresentative("Core").equals("Root");
+        assert reduction.getRepresentative("SubCore").equals("Root");
+        assert reduction.getRepresentative("PluginOne").equals("PluginOne");
+        assert new HashSet<>(reduction.getAtomicSet("SubCore")).equals(new HashSet<>(Arrays.asList("Root", "Core", "SubCore")));
+    }
+
+    @Test
+    void testInterchangeableClasses() {
+        FeatureModelReduction reduction = new FeatureModelReduction(symmetricModel, true);
+        List<List<String>> classes = reduction.getInterchangeableClasses();
+        assert classes.size() == 1;
+        assert classes.get(0).equals(Arrays.asList("PluginOne", "PluginTwo", "PluginThree")); // Special differs in attributes
+        assert !reduction.getFeaturesToAnalyze().contains("PluginTwo");
+        assert !reduction.getFeaturesToAnalyze().contains("Core");
+    }
+
+    @Test
+    void testReducedDeadFeatures() throws InvalidConfigurationException {
+        FeatureModelReduction reduction = new FeatureModelReduction(symmetricModel, true);
+        FmToSMTConverter converter = new FmToSMTConverter(context, symmetricModel, reduction);
+        SMTSatisfiabilityChecker checker = new SMTSatisfiabilityChecker(converter.convertFeatureModel(), context);
+        assert checker.isSat();
+
+        List<String> deadRepresentatives = new ArrayList<>();
+        for (String feature : reduction.getFeaturesToAnalyze()) {
+            if (!checker.isSatWith(booleanManager.makeVariable(converter.getFeatureVariableName(feature)))) deadRepresentatives.add(feature);
+        }
+        Set<String> deadFeatures = reduction.mapDeadFeatures(deadRepresentatives);
+        assert deadFeatures.equals(new HashSet<>(Arrays.asList("Dead")));
+
+        // Without reduction, the same features are dead
+        FmToSMTConverter plainConverter = new FmToSMTConverter(context, symmetricModel);
+        SMTSatisfiabilityChecker plainChecker = new SMTSatisfiabilityChecker(plainConverter.convertFeatureModel(), context);
+        for (String feature : symmetricModel.getFeatureMap().keySet()) {
+            assert plainChecker.isSatWith(booleanManager.makeVariable(feature)) != deadFeatures.contains(feature);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package differential;
+
+import Reasoning.ConstraintAnomaly;
+import Reasoning.ConstraintAnomalyAnalyzer;
+import conversion.FeatureModelReduction;
+import conversion.FmToSMTConverter;
+import de.vill.main.UVLModelFactory;
+import de.vill.model.FeatureModel;
+import org.junit.jupiter.api.Test;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.SolverContextFactory;
+import org.sosy_lab.java_smt.api.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Cross-checks alternative encodings of random feature models against a brute-force reference (RandomFeatureModel)
+ * Checked per model: number of configurations of the plain encoding, the atomic-set reduction, and the cardinality-only rendering,
+ * dead features with symmetry breaking, and removable constraints reported by ConstraintAnomalyAnalyzer
+ * Conversion and solving times of the plain encoding are written to target/differential/timings.csv as a performance baseline
+ * Scale with -Ddifferential.models=N and -Ddifferential.seed=S
+ */
+class DifferentialEncodingTests {
+
+    private static final int MAX_FEATURES = 10;
+    private static final int MAX_CONSTRAINTS = 4;
+
+    private static final Path TIMINGS_FILE = Paths.get("target", "differential", "timings.csv");
+
+    static class Timing {
+        final long seed;
+        final int features;
+        final int constraints;
+        final long configurations;
+        final double conversionMillis;
+        final double solveMillis;
+
+        Timing(long seed, int features, int constraints, long configurations, double conversionMillis, double solveMillis) {
+            this.seed = seed;
+            this.features = features;
+            this.constraints = constraints;
+            this.configurations = configurations;
+            this.conversionMillis = conversionMillis;
+            this.solveMillis = solveMillis;
+        }
+    }
+
+    @Test
+    void testRandomModels() throws InterruptedException, IOException {
+        int numberOfModels = Integer.getInteger("differential.models", 50);
+        long baseSeed = Long.getLong("differential.seed", 42L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<Timing>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfModels; i++) {
+            final long seed = baseSeed + i;
+            futures.add(executor.submit(() -> checkModel(new RandomFeatureModel(seed, MAX_FEATURES, MAX_CONSTRAINTS))));
+        }
+        executor.shutdown();
+
+        List<String> failures = new ArrayList<>();
+        List<Timing> timings = new ArrayList<>();
+        for (Future<Timing> future : futures) {
+            try {
+                timings.add(future.get());
+            } catch (ExecutionException e) {
+                StringWriter stackTrace = new StringWriter();
+                e.getCause().printStackTrace(new PrintWriter(stackTrace)); // assertion errors and NPEs carry no message
+                failures.add(stackTrace.toString());
+            }
+        }
+        writeTimings(timings);
+        assert failures.isEmpty() : failures.size() + " of " + numberOfModels + " models failed:\n" + String.join("\n\n", failures);
+    }
+
+    private static Timing checkModel(RandomFeatureModel randomModel) throws InvalidConfigurationException {
+        String uvl = randomModel.toUvl(false);
+        List<Set<String>> configurations = randomModel.enumerateConfigurations(-1);
+        Set<String> deadFeatures = randomModel.findDeadFeatures(configurations);
+
+        UVLModelFactory factory = new UVLModelFactory();
+        FeatureModel featureModel = factory.parse(uvl);
+        FeatureModel cardinalityModel = factory.parse(randomModel.toUvl(true));
+
+        try (SolverContext context = SolverContextFactory.createSolverContext(Configuration.defaultConfiguration(), LogManager.createNullLogManager(), ShutdownManager.create().getNotifier(), SolverContextFactory.Solvers.Z3)) {
+            BooleanFormulaManager boolManager = context.getFormulaManager().getBooleanFormulaManager();
+
+            // Plain encoding
+            long start = System.nanoTime();
+            FmToSMTConverter converter = new FmToSMTConverter(context, featureModel);
+            BooleanFormula formula = converter.convertFeatureModel();
+            double conversionMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            long count = countConfigurations(formula, featureVariables(randomModel.features, converter, boolManager), context);
+            double solveMillis = (System.nanoTime() - start) / 1e6;
+            check(count == configurations.size(), randomModel, uvl, "plain encoding counts " + count + " instead of " + configurations.size());
+
+            // Groups as cardinalities
+            FmToSMTConverter cardinalityConverter = new FmToSMTConverter(context, cardinalityModel);
+            long cardinalityCount = countConfigurations(cardinalityConverter.convertFeatureModel(), featureVariables(randomModel.features, cardinalityConverter, boolManager), context);
+            check(cardinalityCount == configurations.size(), randomModel, uvl, "cardinality encoding counts " + cardinalityCount + " instead of " + configurations.size());
+
+            // Atomic sets collapsed
+            FmToSMTConverter reducedConverter = new FmToSMTConverter(context, featureModel, new FeatureModelReduction(featureModel));
+            long reducedCount = countConfigurations(reducedConverter.convertFeatureModel(), featureVariables(randomModel.features, reducedConverter, boolManager), context);
+            check(reducedCount == configurations.size(), randomModel, uvl, "atomic-set reduction counts " + reducedCount + " instead of " + configurations.size());
+
+            // Symmetry breaking preserves satisfiability and dead features
+            FeatureModelReduction symmetryReduction = new FeatureModelReduction(featureModel, true);
+            FmToSMTConverter symmetryConverter = new FmToSMTConverter(context, featureModel, symmetryReduction);
+            try (ProverEnvironment prover = context.newProverEnvironment()) {
+                prover.addConstraint(symmetryConverter.convertFeatureModel());
+                check(prover.isUnsat() == configurations.isEmpty(), randomModel, uvl, "symmetry breaking changes satisfiability");
+                List<String> deadRepresentatives = new ArrayList<>();
+                for (String feature : symmetryReduction.getFeaturesToAnalyze()) {
+                    if (prover.isUnsatWithAssumptions(Collections.singletonList(boolManager.makeVariable(symmetryConverter.getFeatureVariableName(feature))))) {
+                        deadRepresentatives.add(feature);
+                    }
+                }
+                Set<String> reducedDeadFeatures = symmetryReduction.mapDeadFeatures(deadRepresentatives);
+                check(reducedDeadFeatures.equals(deadFeatures), randomModel, uvl, "symmetry breaking reports dead features " + reducedDeadFeatures + " instead of " + deadFeatures);
+            } catch (SolverException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            // Removable constraints
+            List<ConstraintAnomaly> anomalies = new ConstraintAnomalyAnalyzer(featureModel, 1).analyze();
+            for (int i = 0; i < anomalies.size(); i++) {
+                boolean removable = randomModel.enumerateConfigurations(i).size() == configurations.size();
+                check(anomalies.get(i).isRemovable() == removable, randomModel, uvl, "constraint " + i + " classified as " + anomalies.get(i).getType() + " but removable is " + removable);
+            }
+
+            return new Timing(randomModel.seed, randomModel.features.size(), randomModel.constraints.size(), count, conversionMillis, solveMillis);
+        }
+    }
+
+    /**
+     * Counts configurations by enumeration with blocking clauses projected onto the given variables
+     */
+    private static long countConfigurations(BooleanFormula formula, Collection<BooleanFormula> projection, SolverContext context) {
+        BooleanFormulaManager boolManager = context.getFormulaManager().getBooleanFormulaManager();
+        try (ProverEnvironment prover = context.newProverEnvironment(SolverContext.ProverOptions.GENERATE_MODELS)) {
+            prover.addConstraint(formula);
+            long count = 0;
+            while (!prover.isUnsat()) {
+                count++;
+                List<BooleanFormula> blockingClause = new ArrayList<>();
+                try (Model model = prover.getModel()) {
+                    for (BooleanFormula variable : projection) {
+                        blockingClause.add(Boolean.TRUE.equals(model.evaluate(variable)) ? boolManager.not(variable) : variable);
+                    }
+                }
+                prover.addConstraint(boolManager.or(blockingClause));
+            }
+            return count;
+        } catch (SolverException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the distinct Boolean variables representing the features (fewer than features if atomic sets are collapsed)
+     */
+    private static Set<BooleanFormula> featureVariables(List<String> features, FmToSMTConverter converter, BooleanFormulaManager boolManager) {
+        Set<BooleanFormula> variables = new LinkedHashSet<>();
+        for (String feature : features) {
+            variables.add(boolManager.makeVariable(converter.getFeatureVariableName(feature)));
+        }
+        return variables;
+    }
+
+    private static void check(boolean condition, RandomFeatureModel randomModel, String uvl, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Seed " + randomModel.seed + ": " + message + "\n" + uvl);
+        }
+    }
+
+    private static void writeTimings(List<Timing> timings) throws IOException {
+        Files.createDirectories(TIMINGS_FILE.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(TIMINGS_FILE, StandardCharsets.UTF_8))) {
+            writer.println("seed,features,constraints,configurations,conversion_ms,solve_ms");
+            for (Timing timing : timings) {
+                writer.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%.3f", timing.seed, timing.features, timing.constraints, timing.configurations, timing.conversionMillis, timing.solveMillis));
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package differential;
+
+import java.util.*;
+
+/**
+ * Randomly generated feature model with an independent brute-force semantics
+ * The model can be rendered to UVL with its original group types or with all groups expressed as group cardinalities
+ */
+class RandomFeatureModel {
+
+    enum GroupKind {OPTIONAL, MANDATORY, OR, ALTERNATIVE, CARDINALITY}
+
+    static class Node {
+        final String name;
+        final int price;
+        final List<GeneratedGroup> groups = new ArrayList<>();
+
+        Node(String name, int price) {
+            this.name = name;
+            this.price = price;
+        }
+    }
+
+    static class GeneratedGroup {
+        final GroupKind kind;
+        final List<Node> children = new ArrayList<>();
+        int lower;
+        int upper;
+
+        GeneratedGroup(GroupKind kind) {
+            this.kind = kind;
+        }
+
+        int getLower() {
+            switch (kind) {
+                case MANDATORY: return children.size();
+                case OR:
+                case ALTERNATIVE: return 1;
+                case CARDINALITY: return lower;
+                default: return 0;
+            }
+        }
+
+        int getUpper() {
+            switch (kind) {
+                case ALTERNATIVE: return 1;
+                case CARDINALITY: return upper;
+                default: return children.size();
+            }
+        }
+    }
+
+    interface Formula {
+        boolean evaluate(Set<String> selected, Map<String, Integer> prices);
+
+        String toUvl();
+    }
+
+    static class Literal implements Formula {
+        final String feature;
+
+        Literal(String feature) {this.feature = feature;}
+
+        public boolean evaluate(Set<String> selected, Map<String, Integer> prices) {return selected.contains(feature);}
+
+        public String toUvl() {return feature;}
+    }
+
+    static class Not implements Formula {
+        final Formula content;
+
+        Not(Formula content) {this.content = content;}
+
+        public boolean evaluate(Set<String> selected, Map<String, Integer> prices) {return !content.evaluate(selected, prices);}
+
+        public String toUvl() {return "!" + content.toUvl();}
+    }
+
+    static class Binary implements Formula {
+        final String operator;
+        final Formula left;
+        final Formula right;
+
+        Binary(String operator, Formula left, Formula right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean evaluate(Set<String> selected, Map<String, Integer> prices) {
+            boolean l = left.evaluate(selected, prices);
+            boolean r = right.evaluate(selected, prices);
+            switch (operator) {
+                case "&": return l && r;
+                case "|": return l || r;
+                case "=>": return !l || r;
+                default: return l == r; // <=>
+            }
+        }
+
+        public String toUvl() {return "(" + left.toUvl() + " " + operator + " " + right.toUvl() + ")";}
+    }
+
+    /**
+     * Sum of the Price attributes of the given features (0 if unselected) compared with a constant
+     */
+    static class PriceComparison implements Formula {
+        final List<String> features;
+        final String operator;
+        final int bound;
+
+        PriceComparison(List<String> features, String operator, int bound) {
+            this.features = features;
+            this.operator = operator;
+            this.bound = bound;
+        }
+
+        public boolean evaluate(Set<String> selected, Map<String, Integer> prices) {
+            int sum = 0;
+            for (String feature : features) {
+                if (selected.contains(feature)) sum += prices.get(feature);
+            }
+            switch (operator) {
+                case ">": return sum > bound;
+                case "<": return sum < bound;
+                case ">=": return sum >= bound;
+                case "<=": return sum <= bound;
+                default: return sum == bound; // ==
+            }
+        }
+
+        public String toUvl() {
+            StringBuilder builder = new StringBuilder("(");
+            for (int i = 0; i < features.size(); i++) {
+                if (i > 0) builder.append(" + ");
+                builder.append(features.get(i)).append(".Price");
+            }
+            return builder.append(" ").append(operator).append(" ").append(bound).append(")").toString();
+        }
+    }
+
+    private static final String[] BOOLEAN_OPERATORS = {"&", "|", "=>", "<=>"};
+    private static final String[] COMPARISON_OPERATORS = {">", "<", ">=", "<=", "=="};
+
+    final long seed;
+    final Node root;
+    final List<String> features = new ArrayList<>();
+    final Map<String, String> parents = new HashMap<>();
+    final Map<String, Integer> prices = new HashMap<>();
+    final List<Formula> constraints = new ArrayList<>();
+
+    private final Random random;
+
+    /**
+     * @param maxFeatures upper bound for the number of features (kept small for brute force)
+     * @param maxConstraints upper bound for the number of cross-tree constraints
+     */
+    RandomFeatureModel(long seed, int maxFeatures, int maxConstraints) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.root = createNode(null);
+        int numberOfFeatures = 2 + random.nextInt(Math.max(1, maxFeatures - 1));
+        List<Node> openNodes = new ArrayList<>();
+        openNodes.add(root);
+        while (features.size() < numberOfFeatures) {
+            Node parent = openNodes.get(random.nextInt(openNodes.size()));
+            GeneratedGroup group = new GeneratedGroup(GroupKind.values()[random.nextInt(GroupKind.values().length)]);
+            int groupSize = 1 + random.nextInt(Math.min(4, numberOfFeatures - features.size()));
+            for (int i = 0; i < groupSize; i++) {
+                Node child = createNode(parent.name);
+                group.children.add(child);
+                openNodes.add(child);
+            }
+            group.lower = random.nextInt(groupSize + 1);
+            group.upper = group.lower + random.nextInt(groupSize - group.lower + 1);
+            parent.groups.add(group);
+        }
+        int numberOfConstraints = random.nextInt(maxConstraints + 1);
+        for (int i = 0; i < numberOfConstraints; i++) {
+            constraints.add(random.nextInt(5) == 0 ? createComparison() : createFormula(2));
+        }
+    }
+
+    private Node createNode(String parent) {
+        String name = "F" + features.size();
+        Node node = new Node(name, random.nextInt(10));
+        features.add(name);
+        prices.put(name, node.price);
+        if (parent != null) parents.put(name, parent);
+        return node;
+    }
+
+    private Formula createFormula(int depth) {
+        int choice = random.nextInt(depth <= 0 ? 2 : 6);
+        if (choice == 0) return new Literal(randomFeature());
+        if (choice == 1) return new Not(new Literal(randomFeature()));
+        return new Binary(BOOLEAN_OPERATORS[random.nextInt(BOOLEAN_OPERATORS.length)], createFormula(depth - 1), createFormula(depth - 1));
+    }
+
+    private Formula createComparison() {
+        List<String> summands = new ArrayList<>();
+        int numberOfSummands = 1 + random.nextInt(3);
+        for (int i = 0; i < numberOfSummands; i++) {
+            summands.add(randomFeature());
+        }
+        return new PriceComparison(summands, COMPARISON_OPERATORS[random.nextInt(COMPARISON_OPERATORS.length)], random.nextInt(10 * numberOfSummands));
+    }
+
+    private String randomFeature() {
+        return features.get(random.nextInt(features.size()));
+    }
+
+    /**
+     * @param cardinalityGroups if true, every group is written as [lower..upper] instead of its keyword
+     */
+    String toUvl(boolean cardinalityGroups) {
+        StringBuilder builder = new StringBuilder("features\n");
+        appendNode(builder, root, 1, cardinalityGroups);
+        if (!constraints.isEmpty()) {
+            builder.append("\nconstraints\n");
+            for (Formula constraint : constraints) {
+                builder.append("    ").append(constraint.toUvl()).append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private void appendNode(StringBuilder builder, Node node, int depth, boolean cardinalityGroups) {
+        builder.append(indent(depth)).append(node.name).append(" {Price ").append(node.price).append("}\n");
+        for (GeneratedGroup group : node.groups) {
+            builder.append(indent(depth + 1));
+            if (cardinalityGroups || group.kind == GroupKind.CARDINALITY) {
+                builder.append("[").append(group.getLower()).append("..").append(group.getUpper()).append("]\n");
+            } else {
+                builder.append(group.kind.name().toLowerCase()).append("\n");
+            }
+            for (Node child : group.children) {
+                appendNode(builder, child, depth + 2, cardinalityGroups);
+            }
+        }
+    }
+
+    private static String indent(int depth) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) builder.append("    ");
+        return builder.toString();
+    }
+
+    /**
+     * @param ignoredConstraint index of a constraint to leave out or -1
+     * @return true if selected is a valid configuration
+     */
+    boolean isValid(Set<String> selected, int ignoredConstraint) {
+        if (!selected.contains(root.name)) return false;
+        for (String feature : selected) {
+            String parent = parents.get(feature);
+            if (parent != null && !selected.contains(parent)) return false;
+        }
+        if (!areGroupsValid(root, selected)) return false;
+        for (int i = 0; i < constraints.size(); i++) {
+            if (i != ignoredConstraint && !constraints.get(i).evaluate(selected, prices)) return false;
+        }
+        return true;
+    }
+
+    private boolean areGroupsValid(Node node, Set<String> selected) {
+        for (GeneratedGroup group : node.groups) {
+            if (selected.contains(node.name)) {
+                int count = 0;
+                for (Node child : group.children) {
+                    if (selected.contains(child.name)) count++;
+                }
+                if (count < group.getLower() || count > group.getUpper()) return false;
+            }
+            for (Node child : group.children) {
+                if (!areGroupsValid(child, selected)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enumerates all 2^n assignments
+     * @return all valid configurations without the constraint ignoredConstraint (-1 for none)
+     */
+    List<Set<String>> enumerateConfigurations(int ignoredConstraint) {
+        List<Set<String>> configurations = new ArrayList<>();
+        for (long mask = 0; mask < (1L << features.size()); mask++) {
+            Set<String> selected = new HashSet<>();
+            for (int i = 0; i < features.size(); i++) {
+                if ((mask & (1L << i)) != 0) selected.add(features.get(i));
+            }
+            if (isValid(selected, ignoredConstraint)) configurations.add(selected);
+        }
+        return configurations;
+    }
+
+    Set<String> findDeadFeatures(List<Set<String>> configurations) {
+        Set<String> deadFeatures = new HashSet<>(features);
+        for (Set<String> configuration : configurations) {
+            deadFeatures.removeAll(configuration);
+        }
+        return deadFeatures;
+    }
+}
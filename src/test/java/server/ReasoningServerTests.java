@@ -0,0 +1,132 @@
+package server;
+
+import de.vill.main.UVLModelFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class ReasoningServerTests {
+
+    ReasoningServer server;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new ReasoningServer(0, 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testBatch() throws IOException {
+        String model = new String(Files.readAllBytes(Paths.get("src/test/resources/arithmetic/attributedbase.uvl")), StandardCharsets.UTF_8);
+        assert request("PUT", "/models/base", model).startsWith("registered");
+
+        String batch = String.join("\n",
+                "base sat",
+                "base sat-with AlternativeOne AlternativeTwo",
+                "base core",
+                "base propagate AlternativeOne",
+                "base optimize max Price",
+                "base optimize min Price",
+                "base unknown-query",
+                "missing sat",
+                "base optimize max Missing");
+        Map<Integer, String> results = new HashMap<>();
+        for (String line : request("POST", "/batch", batch).split("\n")) {
+            String[] parts = line.split("\t", 2);
+            results.put(Integer.parseInt(parts[0]), parts[1]);
+        }
+
+        assert results.size() == 9;
+        assert results.get(0).equals("sat");
+        assert results.get(1).equals("unsat");
+        assert results.get(2).contains("MandatoryOne") && !results.get(2).contains("OptionalOne");
+        assert results.get(3).contains("deselected: ") && results.get(3).split("deselected: ")[1].contains("AlternativeTwo");
+        assert results.get(4).equals("42"); // 7 + 1 + 4 + 5 + 20 + 3 + 2
+        assert results.get(5).equals("21"); // 4 + 5 + 10 + 2
+        assert results.get(6).startsWith("error");
+        assert results.get(7).startsWith("error");
+        assert results.get(8).equals("error Unknown attribute Missing"); // not an optimum of 0
+
+        assert request("DELETE", "/models/base", "").startsWith("removed");
+    }
+
+    @Test
+    void testClosedSession() throws Exception {
+        UVLModelFactory factory = new UVLModelFactory();
+        ReasoningSession session = new ReasoningSession(factory.parse(Paths.get("src/test/resources/arithmetic/attributedbase.uvl")));
+        assert session.answer(ReasoningQuery.parse("sat")).equals("sat");
+        session.close();
+        assert session.answer(ReasoningQuery.parse("sat-with OrOne")).equals("error model removed");
+    }
+
+    @Test
+    void testReregisterDuringBatch() throws Exception {
+        String model = new String(Files.readAllBytes(Paths.get("src/test/resources/arithmetic/attributedbase.uvl")), StandardCharsets.UTF_8);
+        assert request("PUT", "/models/base", model).startsWith("registered");
+
+        StringBuilder batch = new StringBuilder();
+        int numberOfQueries = 200;
+        for (int i = 0; i < numberOfQueries; i++) {
+            batch.append(i % 2 == 0 ? "base dead\n" : "base propagate AlternativeOne\n");
+        }
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        Future<String> batchResponse = client.submit(() -> request("POST", "/batch", batch.toString()));
+        for (int i = 0; i < 5; i++) {
+            assert request("PUT", "/models/base", model).startsWith("registered");
+        }
+        assert request("DELETE", "/models/base", "").startsWith("removed");
+
+        String[] lines = batchResponse.get(60, TimeUnit.SECONDS).split("\n");
+        client.shutdown();
+        assert lines.length == numberOfQueries;
+        for (String line : lines) {
+            String result = line.split("\t", 2)[1];
+            assert !result.startsWith("error") || result.equals("error model removed") || result.equals("error Unknown model base") : result; // the batch may also arrive after the removal
+        }
+
+        // The server survives and serves new registrations
+        assert request("PUT", "/models/base", model).startsWith("registered");
+        assert request("POST", "/batch", "base sat").equals("0\tsat\n");
+    }
+
+    private String request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (!body.isEmpty()) {
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                response.write(buffer, 0, read);
+            }
+        }
+        return new String(response.toByteArray(), StandardCharsets.UTF_8);
+    }
+}